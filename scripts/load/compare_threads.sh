@@ -0,0 +1,103 @@
+#!/usr/bin/env bash
+
+# Compares the throughput of a servlet service running on Tomcat platform threads with the same service
+# running with the `virtual-threads` profile. The service is started standalone on its in-memory HSQLDB
+# database (no config server, no discovery) and Chaos Monkey adds a fixed latency to every repository
+# call to stand in for a remote database, so that the 200 Tomcat threads become the bottleneck.
+#
+# Virtual threads need a Java 21+ runtime; `hey` (https://github.com/rakyll/hey) is used to generate the load.
+
+set -o errexit
+set -o errtrace
+set -o nounset
+set -o pipefail
+
+ROOT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )/../.." && pwd )"
+
+function usage {
+    echo "usage: $0: <customers|visits|vets>"
+    echo "Environment variables: CONCURRENCY (default 1000), DURATION (default 30s), LATENCY_MS (default 100)"
+    echo "Example"
+    echo "CONCURRENCY=2000 ./scripts/load/compare_threads.sh customers"
+    exit 1
+}
+
+if [[ $# -ne 1 ]]; then
+    usage
+fi
+
+case $1 in
+    customers)
+        URL_PATH="owners/6"
+        ;;
+    visits)
+        URL_PATH="owners/6/pets/7/visits"
+        ;;
+    vets)
+        URL_PATH="vets"
+        ;;
+    *)
+        usage
+        ;;
+esac
+
+SERVICE="$1"
+PORT="${PORT:-18080}"
+CONCURRENCY="${CONCURRENCY:-1000}"
+DURATION="${DURATION:-30s}"
+LATENCY_MS="${LATENCY_MS:-100}"
+JAR="$( ls "${ROOT_DIR}"/spring-petclinic-"${SERVICE}"-service/target/*.jar | head -1 )"
+LOG_DIR="${ROOT_DIR}/target/load"
+mkdir -p "${LOG_DIR}"
+
+command -v hey > /dev/null || { echo "hey is required: go install github.com/rakyll/hey@latest"; exit 1; }
+
+function run {
+    local mode="$1"
+    local profiles="chaos-monkey"
+    if [[ "${mode}" == "virtual" ]]; then
+        profiles="${profiles},virtual-threads"
+    fi
+    if [[ "${SERVICE}" == "vets" ]]; then
+        profiles="${profiles},production"
+    fi
+
+    echo "Starting ${SERVICE}-service on ${mode} threads"
+    java -Djdk.tracePinnedThreads=short -jar "${JAR}" \
+        --server.port="${PORT}" \
+        --spring.profiles.active="${profiles}" \
+        --spring.cloud.config.enabled=false \
+        --eureka.client.enabled=false \
+        --spring.sql.init.schema-locations=classpath*:db/hsqldb/schema.sql \
+        --spring.sql.init.data-locations=classpath*:db/hsqldb/data.sql \
+        --spring.jpa.hibernate.ddl-auto=none \
+        --chaos.monkey.enabled=true \
+        --chaos.monkey.watcher.repository=true \
+        --chaos.monkey.assaults.level=1 \
+        --chaos.monkey.assaults.latency-active=true \
+        --chaos.monkey.assaults.latency-range-start="${LATENCY_MS}" \
+        --chaos.monkey.assaults.latency-range-end="${LATENCY_MS}" \
+        > "${LOG_DIR}/${SERVICE}-${mode}.log" 2>&1 &
+    local pid=$!
+
+    until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    # Warm up the JIT and the connection pool before measuring
+    hey -z 10s -c 100 "http://localhost:${PORT}/${URL_PATH}" > /dev/null
+    hey -z "${DURATION}" -c "${CONCURRENCY}" "http://localhost:${PORT}/${URL_PATH}" | tee "${LOG_DIR}/${SERVICE}-${mode}.txt"
+
+    kill "${pid}"
+    wait "${pid}" || true
+    echo "Pinned virtual threads reported: $( grep -c "onPinned\|<== monitors" "${LOG_DIR}/${SERVICE}-${mode}.log" || true )"
+}
+
+run platform
+run virtual
+
+echo
+echo "Summary (${CONCURRENCY} concurrent clients, ${LATENCY_MS} ms per repository call)"
+for mode in platform virtual; do
+    printf "%-9s %s\n" "${mode}" "$( grep "Requests/sec" "${LOG_DIR}/${SERVICE}-${mode}.txt" )"
+done
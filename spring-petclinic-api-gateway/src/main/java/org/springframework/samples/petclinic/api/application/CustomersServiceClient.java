@@ -15,27 +15,174 @@
  */
 package org.springframework.samples.petclinic.api.application;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.system.GatewayProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.joining;
+
 /**
  * @author Maciej Szarlinski
  */
 @Component
 public class CustomersServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final String OWNER_CACHE_METRIC = "petclinic.gateway.owner.cache";
+
+    // Could be changed for testing purpose
+    private String hostname = "http://customers-service/";
+
+    private final WebClient webClient;
+
+    /**
+     * Owners being fetched or recently fetched. Concurrent requests for the same owner share the
+     * same in-flight future, so that a hot owner only costs one call to the customers-service.
+     * Failed and empty results are not kept by Caffeine. The owners are immutable, since all the
+     * callers share them.
+     */
+    private final AsyncCache<Integer, OwnerDetails> ownerCache;
+
+    /**
+     * Whether the owner being fetched has been evicted since its fetch started, by owner. Such an
+     * owner may have been read before the write that caused the eviction, so it is not kept. Only
+     * the owners whose fetch is in flight are tracked, so that an eviction leaves the fetches of
+     * the other owners cached.
+     */
+    private final ConcurrentMap<Integer, AtomicBoolean> evictedWhileFetched = new ConcurrentHashMap<>();
+
+    private final Duration ownerFetchTimeout;
 
-    public CustomersServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    private final GatewayProperties.OwnersByIds ownersByIdsProperties;
+
+    private final Counter ownerCacheHits;
+
+    private final Counter ownerCacheMisses;
+
+    private final Counter ownerCacheCoalesced;
+
+    public CustomersServiceClient(DownstreamWebClientFactory webClientFactory, GatewayProperties gatewayProperties,
+                                  MeterRegistry meterRegistry) {
+        this.webClient = webClientFactory.create("customers-service", gatewayProperties.customersService());
+        GatewayProperties.OwnerCache cacheProperties = gatewayProperties.ownerCache();
+        this.ownerCache = Caffeine.newBuilder()
+            .maximumSize(cacheProperties.maximumSize())
+            .expireAfterWrite(cacheProperties.ttl())
+            .buildAsync();
+        this.ownerFetchTimeout = cacheProperties.fetchTimeout();
+        this.ownersByIdsProperties = gatewayProperties.ownersByIds();
+        this.ownerCacheHits = meterRegistry.counter(OWNER_CACHE_METRIC, "result", "hit");
+        this.ownerCacheMisses = meterRegistry.counter(OWNER_CACHE_METRIC, "result", "miss");
+        this.ownerCacheCoalesced = meterRegistry.counter(OWNER_CACHE_METRIC, "result", "coalesced");
     }
 
     public Mono<OwnerDetails> getOwner(final int ownerId) {
-        return webClientBuilder.build().get()
-            .uri("http://customers-service/owners/{ownerId}", ownerId)
+        return Mono.defer(() -> {
+            boolean[] loaded = {false};
+            CompletableFuture<OwnerDetails> owner = ownerCache.get(ownerId, (id, executor) -> {
+                loaded[0] = true;
+                AtomicBoolean evicted = new AtomicBoolean();
+                evictedWhileFetched.put(id, evicted);
+                CompletableFuture<OwnerDetails> fetch = new CompletableFuture<>();
+                fetchOwner(id).map(CustomersServiceClient::immutable).toFuture().whenComplete((fetched, error) -> {
+                    evictedWhileFetched.remove(id, evicted);
+                    // Removed before completion, so that no caller can read it from the cache
+                    if (evicted.get()) {
+                        ownerCache.asMap().remove(id, fetch);
+                    }
+                    if (error != null) {
+                        fetch.completeExceptionally(error);
+                    } else {
+                        fetch.complete(fetched);
+                    }
+                });
+                return fetch;
+            });
+            if (loaded[0]) {
+                ownerCacheMisses.increment();
+            } else if (owner.isDone()) {
+                ownerCacheHits.increment();
+            } else {
+                ownerCacheCoalesced.increment();
+            }
+            // The future is shared: a cancelled subscriber must not cancel it for the others
+            return Mono.fromFuture(owner, true);
+        });
+    }
+
+    /**
+     * Fetches several owners with a single call to the customers-service. Large lists of owner ids are split
+     * into chunks that are requested concurrently. The owners are returned in the order of the ids, unknown
+     * owners being skipped. Owners are not cached.
+     */
+    public Mono<List<OwnerDetails>> getOwners(final List<Integer> ownerIds) {
+        int chunkSize = ownersByIdsProperties.chunkSize();
+        if (ownerIds.size() <= chunkSize) {
+            return getOwnersOfChunk(ownerIds).collectList();
+        }
+        return Flux.range(0, (ownerIds.size() + chunkSize - 1) / chunkSize)
+            .map(chunk -> ownerIds.subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, ownerIds.size())))
+            .flatMapSequential(this::getOwnersOfChunk, ownersByIdsProperties.concurrency())
+            .collectList();
+    }
+
+    private Flux<OwnerDetails> getOwnersOfChunk(final List<Integer> ownerIds) {
+        return webClient.get()
+            .uri(hostname + "owners?ids={ids}", joinIds(ownerIds))
+            .retrieve()
+            .bodyToFlux(OwnerDetails.class);
+    }
+
+    /**
+     * Removes an owner from the cache after it or one of its pets has been modified.
+     */
+    public void evictOwner(final int ownerId) {
+        AtomicBoolean evicted = evictedWhileFetched.get(ownerId);
+        if (evicted != null) {
+            evicted.set(true);
+        }
+        ownerCache.synchronous().invalidate(ownerId);
+    }
+
+    /**
+     * Bounded by a timeout: a hung call would otherwise keep the in-flight future, and all the requests
+     * for the same owner waiting on it, pending forever.
+     */
+    private Mono<OwnerDetails> fetchOwner(final int ownerId) {
+        return webClient.get()
+            .uri(hostname + "owners/{ownerId}", ownerId)
             .retrieve()
-            .bodyToMono(OwnerDetails.class);
+            .bodyToMono(OwnerDetails.class)
+            .timeout(ownerFetchTimeout);
+    }
+
+    private static OwnerDetails immutable(OwnerDetails owner) {
+        List<PetDetails> pets = owner.pets().stream()
+            .map(pet -> new PetDetails(pet.id(), pet.name(), pet.birthDate(), pet.type(), List.copyOf(pet.visits())))
+            .toList();
+        return new OwnerDetails(owner.id(), owner.firstName(), owner.lastName(), owner.address(), owner.city(),
+            owner.telephone(), pets);
+    }
+
+    private String joinIds(List<Integer> ids) {
+        return ids.stream().map(Object::toString).collect(joining(","));
+    }
+
+    void setHostname(String hostname) {
+        this.hostname = hostname;
     }
 }
@@ -15,11 +15,15 @@
  */
 package org.springframework.samples.petclinic.api.application;
 
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.GatewayProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.stream.Collectors.joining;
@@ -33,16 +37,46 @@ public class VisitsServiceClient {
     // Could be changed for testing purpose
     private String hostname = "http://visits-service/";
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
 
-    public VisitsServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    private final GatewayProperties.PetVisits petVisitsProperties;
+
+    public VisitsServiceClient(DownstreamWebClientFactory webClientFactory, GatewayProperties gatewayProperties) {
+        this.webClient = webClientFactory.create("visits-service", gatewayProperties.visitsService());
+        this.petVisitsProperties = gatewayProperties.petVisits();
     }
 
+    /**
+     * Latest visits of the given pets. Large lists of pet ids are split into chunks that are requested
+     * concurrently. The visits are returned in the order of the chunks.
+     */
     public Mono<Visits> getVisitsForPets(final List<Integer> petIds) {
-        return webClientBuilder.build()
+        int chunkSize = petVisitsProperties.chunkSize();
+        if (petIds.size() <= chunkSize) {
+            return getVisitsForChunk(petIds);
+        }
+        return Flux.range(0, (petIds.size() + chunkSize - 1) / chunkSize)
+            .map(chunk -> petIds.subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, petIds.size())))
+            .flatMapSequential(this::getVisitsForChunk, petVisitsProperties.concurrency())
+            .collect(ArrayList<VisitDetails>::new, (items, visits) -> items.addAll(visits.items()))
+            .map(Visits::new);
+    }
+
+    private Mono<Visits> getVisitsForChunk(final List<Integer> petIds) {
+        return webClient
+            .get()
+            .uri(hostname + "pets/visits?petId={petId}&latest={latest}", joinIds(petIds), petVisitsProperties.latest())
+            .retrieve()
+            .bodyToMono(Visits.class);
+    }
+
+    /**
+     * Latest visits of the pets of the given owner.
+     */
+    public Mono<Visits> getVisitsForOwner(final int ownerId) {
+        return webClient
             .get()
-            .uri(hostname + "pets/visits?petId={petId}", joinIds(petIds))
+            .uri(hostname + "owners/{ownerId}/visits?latest={latest}", ownerId, petVisitsProperties.latest())
             .retrieve()
             .bodyToMono(Visits.class);
     }
@@ -20,15 +20,20 @@ import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFac
 import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
 import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Map;
 
 /**
  * @author Maciej Szarlinski
@@ -53,28 +58,81 @@ public class ApiGatewayController {
 
     @GetMapping(value = "owners/{ownerId}")
     public Mono<OwnerDetails> getOwnerDetails(final @PathVariable int ownerId) {
-        return customersServiceClient.getOwner(ownerId)
-            .flatMap(owner ->
-                visitsServiceClient.getVisitsForPets(owner.getPetIds())
+        // Visits are looked up by owner id so that both downstream calls can run concurrently
+        Mono<Visits> visits = visitsServiceClient.getVisitsForOwner(ownerId)
+            .transform(it -> {
+                ReactiveCircuitBreaker cb = cbFactory.create("getOwnerDetails");
+                return cb.run(it, throwable -> emptyVisitsForPets());
+            });
+        return Mono.zip(customersServiceClient.getOwner(ownerId), visits)
+            .map(tuple -> addVisitsToOwner(tuple.getT1(), tuple.getT2()));
+    }
+
+    /**
+     * Reads the details of several owners with one call to the customers-service and one call to the
+     * visits-service for all their pets, instead of two calls per owner.
+     */
+    @GetMapping(value = "owners", params = "ids")
+    public Mono<List<OwnerDetails>> getOwnersDetails(final @RequestParam("ids") List<Integer> ownerIds) {
+        return customersServiceClient.getOwners(ownerIds)
+            .flatMap(owners -> {
+                List<Integer> petIds = owners.stream()
+                    .flatMap(owner -> owner.getPetIds().stream())
+                    .toList();
+                if (petIds.isEmpty()) {
+                    return Mono.just(owners);
+                }
+                return visitsServiceClient.getVisitsForPets(petIds)
                     .transform(it -> {
-                        ReactiveCircuitBreaker cb = cbFactory.create("getOwnerDetails");
+                        ReactiveCircuitBreaker cb = cbFactory.create("getOwnersDetails");
                         return cb.run(it, throwable -> emptyVisitsForPets());
                     })
-                    .map(addVisitsToOwner(owner))
-            );
+                    .map(visits -> addVisitsToOwners(owners, visits));
+            });
+    }
+
+    /**
+     * Dispatches the visits to the pets of the owner. Visits are grouped by pet id in a single pass
+     * so that the cost stays linear for owners having a lot of pets and visits.
+     * <p>
+     * The owner may be shared through the cache of the {@link CustomersServiceClient}: it is copied
+     * with the visits rather than modified.
+     */
+    static OwnerDetails addVisitsToOwner(OwnerDetails owner, Visits visits) {
+        return withVisits(owner, groupByPetId(visits, owner.pets().size()));
+    }
+
+    static List<OwnerDetails> addVisitsToOwners(List<OwnerDetails> owners, Visits visits) {
+        int pets = owners.stream().mapToInt(owner -> owner.pets().size()).sum();
+        Map<Integer, List<VisitDetails>> visitsByPetId = groupByPetId(visits, pets);
+        return owners.stream()
+            .map(owner -> withVisits(owner, visitsByPetId))
+            .toList();
+    }
 
+    private static Map<Integer, List<VisitDetails>> groupByPetId(Visits visits, int expectedPets) {
+        Map<Integer, List<VisitDetails>> visitsByPetId = new HashMap<>(expectedPets * 2);
+        for (VisitDetails visit : visits.items()) {
+            visitsByPetId.computeIfAbsent(visit.petId(), petId -> new ArrayList<>()).add(visit);
+        }
+        return visitsByPetId;
     }
 
-    private Function<Visits, OwnerDetails> addVisitsToOwner(OwnerDetails owner) {
-        return visits -> {
-            owner.pets()
-                .forEach(pet -> pet.visits()
-                    .addAll(visits.items().stream()
-                        .filter(v -> v.petId() == pet.id())
-                        .toList())
-                );
-            return owner;
-        };
+    private static OwnerDetails withVisits(OwnerDetails owner, Map<Integer, List<VisitDetails>> visitsByPetId) {
+        List<PetDetails> pets = new ArrayList<>(owner.pets().size());
+        for (PetDetails pet : owner.pets()) {
+            List<VisitDetails> petVisits = visitsByPetId.get(pet.id());
+            if (petVisits == null) {
+                pets.add(pet);
+                continue;
+            }
+            List<VisitDetails> allVisits = new ArrayList<>(pet.visits().size() + petVisits.size());
+            allVisits.addAll(pet.visits());
+            allVisits.addAll(petVisits);
+            pets.add(new PetDetails(pet.id(), pet.name(), pet.birthDate(), pet.type(), allVisits));
+        }
+        return new OwnerDetails(owner.id(), owner.firstName(), owner.lastName(), owner.address(), owner.city(),
+            owner.telephone(), pets);
     }
 
     private Mono<Visits> emptyVisitsForPets() {
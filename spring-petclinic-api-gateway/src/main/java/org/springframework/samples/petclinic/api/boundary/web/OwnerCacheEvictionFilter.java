@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+/**
+ * Evicts an owner from the {@link CustomersServiceClient} cache when the owner or one of its pets
+ * is modified through the gateway routes of the customers-service.
+ */
+@Component
+class OwnerCacheEvictionFilter implements GlobalFilter, Ordered {
+
+    private static final PathPattern OWNER_PATH = PathPatternParser.defaultInstance.parse("/api/customer/owners/{ownerId}/**");
+
+    private final CustomersServiceClient customersServiceClient;
+
+    OwnerCacheEvictionFilter(CustomersServiceClient customersServiceClient) {
+        this.customersServiceClient = customersServiceClient;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        PathPattern.PathMatchInfo matchInfo = OWNER_PATH.matchAndExtract(path);
+        if (matchInfo == null) {
+            return chain.filter(exchange);
+        }
+        try {
+            int ownerId = Integer.parseInt(matchInfo.getUriVariables().get("ownerId"));
+            // Evicted after the write too: a fetch in flight during the write could cache the former owner
+            return Mono.fromRunnable(() -> customersServiceClient.evictOwner(ownerId))
+                .then(chain.filter(exchange))
+                .doFinally(signal -> customersServiceClient.evictOwner(ownerId));
+        } catch (NumberFormatException e) {
+            return chain.filter(exchange);
+        }
+    }
+
+    /**
+     * Runs before the route filters so that the path is read before StripPrefix rewrites it.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10_000;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.api.system;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Typesafe custom configuration of the API Gateway.
+ */
+@ConfigurationProperties(prefix = "gateway")
+@Validated
+public record GatewayProperties(
+    @DefaultValue OwnerCache ownerCache,
+    @DefaultValue Pool customersService,
+    @DefaultValue Pool visitsService,
+    @DefaultValue @Valid PetVisits petVisits,
+    @DefaultValue @Valid OwnersByIds ownersByIds
+) {
+    /**
+     * In-gateway cache of the owners returned by the customers-service.
+     *
+     * @param maximumSize  maximum number of cached owners
+     * @param ttl          time after which an owner is fetched again from the customers-service
+     * @param fetchTimeout maximum time of a fetch, which the callers waiting for the same owner share
+     */
+    public record OwnerCache(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("30s") Duration ttl,
+        @DefaultValue("5s") Duration fetchTimeout
+    ) {
+    }
+
+    /**
+     * Reactor Netty connection pool used to call a downstream service.
+     *
+     * @param maxConnections         maximum number of connections per remote host
+     * @param pendingAcquireMaxCount maximum number of requests waiting for a connection
+     * @param pendingAcquireTimeout  maximum time a request waits for a connection
+     * @param maxIdleTime            time after which an idle connection is closed
+     * @param evictInBackground      interval of the background eviction of idle connections
+     * @param http2                  whether HTTP/2 cleartext is negotiated, falling back to HTTP/1.1
+     */
+    public record Pool(
+        @DefaultValue("100") int maxConnections,
+        @DefaultValue("500") int pendingAcquireMaxCount,
+        @DefaultValue("5s") Duration pendingAcquireTimeout,
+        @DefaultValue("30s") Duration maxIdleTime,
+        @DefaultValue("60s") Duration evictInBackground,
+        @DefaultValue("false") boolean http2
+    ) {
+    }
+
+    /**
+     * Visits read from the visits-service for the pets of owners. The pet ids are split so that URLs and SQL IN
+     * lists stay short.
+     *
+     * @param chunkSize   maximum number of pet ids sent in one request
+     * @param concurrency maximum number of chunks requested at the same time
+     * @param latest      number of most recent visits of each pet returned with an owner
+     */
+    public record PetVisits(
+        @DefaultValue("100") @Min(1) int chunkSize,
+        @DefaultValue("4") @Min(1) int concurrency,
+        @DefaultValue("20") @Min(1) int latest
+    ) {
+    }
+
+    /**
+     * Owners read from the customers-service by their ids. The owner ids are split so that URLs and SQL IN lists
+     * stay short.
+     *
+     * @param chunkSize   maximum number of owner ids sent in one request
+     * @param concurrency maximum number of chunks requested at the same time
+     */
+    public record OwnersByIds(
+        @DefaultValue("100") @Min(1) int chunkSize,
+        @DefaultValue("4") @Min(1) int concurrency
+    ) {
+    }
+}
@@ -11,6 +11,46 @@ function appendMessage(message, type) {
 
     // Scroll to the bottom of the chatbox to show the latest message
     chatMessages.scrollTop = chatMessages.scrollHeight;
+    return messageElement;
+}
+
+function updateMessage(messageElement, message) {
+    const chatMessages = document.getElementById('chatbox-messages');
+    messageElement.innerHTML = marked.parse(message);
+    chatMessages.scrollTop = chatMessages.scrollHeight;
+}
+
+// Reads the server-sent events of the response and passes the text of each one to onData.
+// The text is taken as is after "data:": the server does not separate it with a space.
+async function readEvents(response, onData) {
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    while (true) {
+        const {done, value} = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, {stream: true});
+        let end;
+        while ((end = buffer.indexOf('\n\n')) >= 0) {
+            const data = buffer.substring(0, end).split('\n')
+                .filter(line => line.startsWith('data:'))
+                .map(line => line.substring(5));
+            if (data.length > 0) {
+                onData(data.join('\n'));
+            }
+            buffer = buffer.substring(end + 2);
+        }
+    }
+}
+
+// Identifies the conversation of this browser, so that the chatbot remembers it apart from the others
+function conversationId() {
+    let id = localStorage.getItem('chatConversationId');
+    if (!id) {
+        id = window.crypto && crypto.randomUUID ? crypto.randomUUID() : Date.now() + '-' + Math.random().toString(36).substring(2);
+        localStorage.setItem('chatConversationId', id);
+    }
+    return id;
 }
 
 function toggleChatbox() {
@@ -38,23 +78,34 @@ function sendMessage() {
     // Display user message in the chatbox
     appendMessage(query, 'user');
 
-    // Send the message to the backend
-    fetch('/api/genai/chatclient', {
+    // Send the message to the backend, which streams the answer as it is generated
+    const botMessage = appendMessage('', 'bot');
+    let answer = '';
+    fetch('/api/genai/chatclient/stream', {
         method: 'POST',
         headers: {
             'Content-Type': 'application/json',
+            'Accept': 'text/event-stream',
+            'X-Conversation-Id': conversationId(),
         },
         body: JSON.stringify(query),
     })
-        .then(response => response.text())
-        .then(responseText => {
-            // Display the response from the server in the chatbox
-            appendMessage(responseText, 'bot');
+        .then(response => {
+            const contentType = response.headers.get('Content-Type') || '';
+            if (!contentType.startsWith('text/event-stream')) {
+                // Fallback answer of the gateway
+                return response.text().then(responseText => updateMessage(botMessage, responseText));
+            }
+            return readEvents(response, data => {
+                // Display the answer in the chatbox as it comes in
+                answer += data;
+                updateMessage(botMessage, answer);
+            });
         })
         .catch(error => {
             console.error('Error:', error);
             // Display the fallback message in the chatbox
-            appendMessage('Chat is currently unavailable', 'bot');
+            updateMessage(botMessage, 'Chat is currently unavailable');
         });
 }
 
@@ -1,10 +1,70 @@
 'use strict';
 
 angular.module('ownerList')
-    .controller('OwnerListController', ['$http', function ($http) {
+    .controller('OwnerListController', ['$http', '$scope', '$window', function ($http, $scope, $window) {
         var self = this;
+        var pageSize = 50;
+        var nextCursor = null;
+        var loading = false;
+        // Incremented by each new search so that pages of a previous search are ignored
+        var searchId = 0;
 
-        $http.get('api/customer/owners').then(function (resp) {
-            self.owners = resp.data;
-        });
+        self.owners = [];
+        self.hasMore = true;
+
+        self.search = function () {
+            searchId++;
+            self.owners = [];
+            self.hasMore = true;
+            nextCursor = null;
+            loading = false;
+            self.loadMore();
+        };
+
+        self.loadMore = function () {
+            if (loading || !self.hasMore) {
+                return;
+            }
+            loading = true;
+            var currentSearchId = searchId;
+            var params = {size: pageSize};
+            if (self.query) {
+                params.lastName = self.query;
+            }
+            if (nextCursor) {
+                params.cursor = nextCursor;
+            }
+            $http.get('api/customer/owners/search', {params: params}).then(function (resp) {
+                if (currentSearchId !== searchId) {
+                    return;
+                }
+                if (!resp.data || !resp.data.owners) {
+                    self.hasMore = false;
+                    return;
+                }
+                self.owners = self.owners.concat(resp.data.owners);
+                nextCursor = resp.data.nextCursor;
+                self.hasMore = !!nextCursor;
+            }).finally(function () {
+                // Also after a failed page, so that scrolling retries it
+                if (currentSearchId === searchId) {
+                    loading = false;
+                }
+            });
+        };
+
+        function loadMoreWhenScrolledToBottom() {
+            var body = $window.document.body;
+            if ($window.innerHeight + $window.pageYOffset >= body.offsetHeight - 200) {
+                $scope.$apply(self.loadMore);
+            }
+        }
+
+        angular.element($window).on('scroll', loadMoreWhenScrolledToBottom);
+
+        self.$onDestroy = function () {
+            angular.element($window).off('scroll', loadMoreWhenScrolledToBottom);
+        };
+
+        self.search();
     }]);
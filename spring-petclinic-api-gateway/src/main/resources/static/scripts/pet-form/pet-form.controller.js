@@ -35,7 +35,8 @@ angular.module('petForm')
                 id: id,
                 name: self.pet.name,
                 birthDate: self.pet.birthDate,
-                typeId: self.petTypeId
+                typeId: self.petTypeId,
+                version: self.pet.version
             };
 
             var req;
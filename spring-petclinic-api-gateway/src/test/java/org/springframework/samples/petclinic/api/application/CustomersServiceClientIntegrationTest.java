@@ -0,0 +1,156 @@
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.system.GatewayProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomersServiceClientIntegrationTest {
+
+    private static final String OWNER_JSON = "{\"id\":1,\"firstName\":\"George\",\"lastName\":\"Franklin\",\"pets\":[]}";
+
+    private CustomersServiceClient customersServiceClient;
+
+    private MeterRegistry meterRegistry;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new MockWebServer();
+        meterRegistry = new SimpleMeterRegistry();
+        GatewayProperties.Pool pool = new GatewayProperties.Pool(10, 10, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60), false);
+        GatewayProperties properties = new GatewayProperties(new GatewayProperties.OwnerCache(100, Duration.ofMinutes(1), Duration.ofSeconds(1)), pool, pool, new GatewayProperties.PetVisits(100, 4, 20), new GatewayProperties.OwnersByIds(2, 4));
+        customersServiceClient = new CustomersServiceClient(new DownstreamWebClientFactory(WebClient.builder()), properties, meterRegistry);
+        customersServiceClient.setHostname(server.url("/").toString());
+    }
+
+    @AfterEach
+    void shutdown() throws IOException {
+        this.server.shutdown();
+    }
+
+    @Test
+    void getOwner_concurrentRequestsShareOneCall() {
+        enqueueOwner(Duration.ofMillis(200));
+
+        OwnerDetails[] owners = Mono.zip(customersServiceClient.getOwner(1), customersServiceClient.getOwner(1))
+            .map(tuple -> new OwnerDetails[]{tuple.getT1(), tuple.getT2()})
+            .block();
+
+        assertEquals("George", owners[0].firstName());
+        assertEquals("George", owners[1].firstName());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1.0, counter("miss"));
+        assertEquals(1.0, counter("coalesced"));
+    }
+
+    @Test
+    void getOwner_servedFromCacheUntilEvicted() {
+        enqueueOwner(Duration.ZERO);
+        enqueueOwner(Duration.ZERO);
+
+        customersServiceClient.getOwner(1).block();
+        customersServiceClient.getOwner(1).block();
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1.0, counter("hit"));
+
+        customersServiceClient.evictOwner(1);
+        customersServiceClient.getOwner(1).block();
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2.0, counter("miss"));
+    }
+
+    @Test
+    void getOwner_notCachedWhenEvictedWhileFetched() {
+        enqueueOwner(Duration.ofMillis(200));
+        enqueueOwner(Duration.ZERO);
+
+        CompletableFuture<OwnerDetails> fetch = customersServiceClient.getOwner(1).toFuture();
+        customersServiceClient.evictOwner(1);
+        fetch.join();
+        customersServiceClient.getOwner(1).block();
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void getOwner_cachedWhenAnotherOwnerIsEvictedWhileFetched() {
+        enqueueOwner(Duration.ofMillis(200));
+
+        CompletableFuture<OwnerDetails> fetch = customersServiceClient.getOwner(1).toFuture();
+        customersServiceClient.evictOwner(2);
+        fetch.join();
+        customersServiceClient.getOwner(1).block();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1.0, counter("hit"));
+    }
+
+    @Test
+    void getOwner_failsAndIsNotCachedWhenFetchTimesOut() {
+        enqueueOwner(Duration.ofMillis(1500));
+        enqueueOwner(Duration.ZERO);
+
+        assertThrows(RuntimeException.class, () -> customersServiceClient.getOwner(1).block());
+        OwnerDetails owner = customersServiceClient.getOwner(1).block();
+
+        assertEquals("George", owner.firstName());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void getOwners_splitsOwnerIdsInChunks() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String ownerIds = request.getRequestUrl().queryParameter("ids");
+                String body = Arrays.stream(ownerIds.split(","))
+                    .map(ownerId -> "{\"id\":" + ownerId + ",\"firstName\":\"George\",\"pets\":[]}")
+                    .collect(Collectors.joining(",", "[", "]"));
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(body)
+                    // The first chunk is the slowest one, but must stay first
+                    .setBodyDelay(ownerIds.startsWith("1,") ? 200 : 0, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        List<OwnerDetails> owners = customersServiceClient.getOwners(List.of(1, 2, 3, 4, 5)).block();
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(List.of(1, 2, 3, 4, 5), owners.stream().map(OwnerDetails::id).toList());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("petclinic.gateway.owner.cache", "result", result).count();
+    }
+
+    private void enqueueOwner(Duration delay) {
+        this.server.enqueue(new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody(OWNER_JSON)
+            .setBodyDelay(delay.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -1,17 +1,26 @@
 package org.springframework.samples.petclinic.api.application;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.GatewayProperties;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -27,8 +36,7 @@ class VisitsServiceClientIntegrationTest {
     @BeforeEach
     void setUp() {
         server = new MockWebServer();
-        visitsServiceClient = new VisitsServiceClient(WebClient.builder());
-        visitsServiceClient.setHostname(server.url("/").toString());
+        visitsServiceClient = newVisitsServiceClient(100);
     }
 
     @AfterEach
@@ -47,6 +55,49 @@ class VisitsServiceClientIntegrationTest {
         assertVisitDescriptionEquals(visits.block(), PET_ID,"test visit");
     }
 
+    @Test
+    void getVisitsForOwner_withAvailableVisitsService() throws InterruptedException {
+        prepareResponse(response -> response
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"items\":[{\"id\":5,\"date\":\"2018-11-15\",\"description\":\"test visit\",\"petId\":1}]}"));
+
+        Mono<Visits> visits = visitsServiceClient.getVisitsForOwner(1);
+
+        assertVisitDescriptionEquals(visits.block(), PET_ID,"test visit");
+        assertEquals("/owners/1/visits?latest=20", server.takeRequest().getPath());
+    }
+
+    @Test
+    void getVisitsForPets_splitsPetIdsInChunks() {
+        visitsServiceClient = newVisitsServiceClient(2);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String petIds = request.getRequestUrl().queryParameter("petId");
+                String body = Arrays.stream(petIds.split(","))
+                    .map(petId -> "{\"id\":" + petId + ",\"description\":\"visit\",\"petId\":" + petId + "}")
+                    .collect(Collectors.joining(",", "{\"items\":[", "]}"));
+                return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(body)
+                    // The first chunk is the slowest one, but must stay first
+                    .setBodyDelay(petIds.startsWith("1,") ? 200 : 0, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        Visits visits = visitsServiceClient.getVisitsForPets(List.of(1, 2, 3, 4, 5)).block();
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(List.of(1, 2, 3, 4, 5), visits.items().stream().map(VisitDetails::petId).toList());
+    }
+
+    private VisitsServiceClient newVisitsServiceClient(int chunkSize) {
+        GatewayProperties.Pool pool = new GatewayProperties.Pool(10, 10, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(60), false);
+        GatewayProperties properties = new GatewayProperties(new GatewayProperties.OwnerCache(100, Duration.ofMinutes(1), Duration.ofSeconds(5)), pool, pool, new GatewayProperties.PetVisits(chunkSize, 4, 20), new GatewayProperties.OwnersByIds(100, 4));
+        VisitsServiceClient client = new VisitsServiceClient(new DownstreamWebClientFactory(WebClient.builder()), properties);
+        client.setHostname(server.url("/").toString());
+        return client;
+    }
 
     private void assertVisitDescriptionEquals(Visits visits, int petId, String description) {
         assertEquals(1, visits.items().size());
@@ -0,0 +1,96 @@
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to attach the visits of an owner to its pets: filtering the whole visits list once per pet, as before, against
+ * the single-pass grouping of {@link ApiGatewayController#addVisitsToOwner(OwnerDetails, Visits)}. Owners go up to
+ * the 1000 pets of a shelter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddVisitsToOwnerBenchmark {
+
+    @Param({"5", "200", "1000"})
+    private int pets;
+
+    @Param({"4", "20"})
+    private int visitsPerPet;
+
+    private List<PetDetails> petTemplates;
+
+    private Visits visits;
+
+    @Setup
+    public void setUp() {
+        petTemplates = new ArrayList<>(pets);
+        for (int i = 1; i <= pets; i++) {
+            petTemplates.add(PetDetails.PetDetailsBuilder.aPetDetails().id(i).name("Pet " + i).build());
+        }
+        List<VisitDetails> items = new ArrayList<>(pets * visitsPerPet);
+        for (int i = 0; i < pets * visitsPerPet; i++) {
+            items.add(new VisitDetails(i, 1 + i % pets, "2024-01-01", "visit " + i));
+        }
+        // Visits are not returned grouped by pet by the visits-service
+        Collections.shuffle(items, new Random(42));
+        visits = new Visits(items);
+    }
+
+    @Benchmark
+    public OwnerDetails filterPerPet() {
+        OwnerDetails owner = newOwner();
+        owner.pets()
+            .forEach(pet -> pet.visits()
+                .addAll(visits.items().stream()
+                    .filter(v -> v.petId() == pet.id())
+                    .toList())
+            );
+        return owner;
+    }
+
+    @Benchmark
+    public OwnerDetails groupByPetId() {
+        return ApiGatewayController.addVisitsToOwner(newOwner(), visits);
+    }
+
+    private OwnerDetails newOwner() {
+        List<PetDetails> ownerPets = new ArrayList<>(petTemplates.size());
+        for (PetDetails pet : petTemplates) {
+            ownerPets.add(new PetDetails(pet.id(), pet.name(), pet.birthDate(), pet.type(), new ArrayList<>()));
+        }
+        return OwnerDetails.OwnerDetailsBuilder.anOwnerDetails().id(1).pets(ownerPets).build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AddVisitsToOwnerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
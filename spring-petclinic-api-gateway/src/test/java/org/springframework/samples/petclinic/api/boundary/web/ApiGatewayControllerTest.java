@@ -17,9 +17,10 @@ import reactor.core.publisher.Mono;
 
 import java.net.ConnectException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(controllers = ApiGatewayController.class)
 @Import({ReactiveResilience4JAutoConfiguration.class, CircuitBreakerConfiguration.class})
@@ -52,7 +53,7 @@ class ApiGatewayControllerTest {
         VisitDetails visit = new VisitDetails(300, cat.id(), null, "First visit");
         Visits visits = new Visits(List.of(visit));
         Mockito
-            .when(visitsServiceClient.getVisitsForPets(Collections.singletonList(cat.id())))
+            .when(visitsServiceClient.getVisitsForOwner(1))
             .thenReturn(Mono.just(visits));
 
         client.get()
@@ -64,6 +65,116 @@ class ApiGatewayControllerTest {
             .jsonPath("$.pets[0].visits[0].description").isEqualTo("First visit");
     }
 
+    @Test
+    void getOwnerDetails_dispatchesVisitsToTheirPets() {
+        PetDetails cat = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(20)
+            .name("Garfield")
+            .visits(new ArrayList<>())
+            .build();
+        PetDetails dog = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(21)
+            .name("Odie")
+            .visits(new ArrayList<>())
+            .build();
+        OwnerDetails owner = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .pets(List.of(cat, dog))
+            .build();
+        Mockito
+            .when(customersServiceClient.getOwner(1))
+            .thenReturn(Mono.just(owner));
+
+        Visits visits = new Visits(List.of(
+            new VisitDetails(300, dog.id(), null, "Dog first visit"),
+            new VisitDetails(301, cat.id(), null, "Cat first visit"),
+            new VisitDetails(302, dog.id(), null, "Dog second visit")));
+        Mockito
+            .when(visitsServiceClient.getVisitsForOwner(1))
+            .thenReturn(Mono.just(visits));
+
+        client.get()
+            .uri("/api/gateway/owners/1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.pets[0].visits.length()").isEqualTo(1)
+            .jsonPath("$.pets[0].visits[0].description").isEqualTo("Cat first visit")
+            .jsonPath("$.pets[1].visits.length()").isEqualTo(2)
+            .jsonPath("$.pets[1].visits[0].description").isEqualTo("Dog first visit")
+            .jsonPath("$.pets[1].visits[1].description").isEqualTo("Dog second visit");
+    }
+
+    @Test
+    void getOwnerDetails_doesNotModifyTheCachedOwner() {
+        PetDetails cat = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(20)
+            .name("Garfield")
+            .visits(new ArrayList<>())
+            .build();
+        OwnerDetails owner = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .pets(List.of(cat))
+            .build();
+        // The same instance for each call, as returned by the owner cache
+        Mockito
+            .when(customersServiceClient.getOwner(1))
+            .thenReturn(Mono.just(owner));
+        Mockito
+            .when(visitsServiceClient.getVisitsForOwner(1))
+            .thenReturn(Mono.just(new Visits(List.of(new VisitDetails(300, cat.id(), null, "First visit")))));
+
+        for (int call = 0; call < 2; call++) {
+            client.get()
+                .uri("/api/gateway/owners/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.pets[0].visits.length()").isEqualTo(1);
+        }
+        assertThat(cat.visits()).isEmpty();
+    }
+
+    @Test
+    void getOwnersDetails_withOneCallPerDownstreamService() {
+        PetDetails cat = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(20)
+            .name("Garfield")
+            .visits(new ArrayList<>())
+            .build();
+        PetDetails dog = PetDetails.PetDetailsBuilder.aPetDetails()
+            .id(21)
+            .name("Odie")
+            .visits(new ArrayList<>())
+            .build();
+        OwnerDetails jon = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .id(1)
+            .pets(List.of(cat))
+            .build();
+        OwnerDetails liz = OwnerDetails.OwnerDetailsBuilder.anOwnerDetails()
+            .id(2)
+            .pets(List.of(dog))
+            .build();
+        Mockito
+            .when(customersServiceClient.getOwners(List.of(1, 2)))
+            .thenReturn(Mono.just(List.of(jon, liz)));
+
+        Visits visits = new Visits(List.of(
+            new VisitDetails(300, dog.id(), null, "Dog visit"),
+            new VisitDetails(301, cat.id(), null, "Cat visit")));
+        Mockito
+            .when(visitsServiceClient.getVisitsForPets(List.of(20, 21)))
+            .thenReturn(Mono.just(visits));
+
+        client.get()
+            .uri("/api/gateway/owners?ids=1,2")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].id").isEqualTo(1)
+            .jsonPath("$[0].pets[0].visits[0].description").isEqualTo("Cat visit")
+            .jsonPath("$[1].id").isEqualTo(2)
+            .jsonPath("$[1].pets[0].visits[0].description").isEqualTo("Dog visit");
+    }
+
     /**
      * Test Resilience4j fallback method
      */
@@ -82,7 +193,7 @@ class ApiGatewayControllerTest {
             .thenReturn(Mono.just(owner));
 
         Mockito
-            .when(visitsServiceClient.getVisitsForPets(Collections.singletonList(cat.id())))
+            .when(visitsServiceClient.getVisitsForOwner(1))
             .thenReturn(Mono.error(new ConnectException("Simulate error")));
 
         client.get()
@@ -0,0 +1,43 @@
+package org.springframework.samples.petclinic.customers.config;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches of the pet types, which are read on every pet form and pet save but only change through SQL.
+ * <p>
+ * <code>petTypes</code> holds the ordered list and <code>petType</code> the types by id. Entries expire after
+ * {@link #PET_TYPES_TTL}; after editing the <code>types</code> table they can be dropped at once with
+ * <code>DELETE /actuator/caches</code>. Hit and miss counts are published as the <code>cache.gets</code> metric.
+ */
+@Configuration
+@EnableCaching
+class CacheConfig {
+
+    static final String PET_TYPES = "petTypes";
+
+    static final String PET_TYPE = "petType";
+
+    static final Duration PET_TYPES_TTL = Duration.ofMinutes(10);
+
+    @Bean
+    CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PET_TYPES, Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(PET_TYPES_TTL)
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(PET_TYPE, Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(PET_TYPES_TTL)
+            .recordStats()
+            .build());
+        return cacheManager;
+    }
+}
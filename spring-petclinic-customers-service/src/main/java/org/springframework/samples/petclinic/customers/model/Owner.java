@@ -18,11 +18,14 @@ package org.springframework.samples.petclinic.customers.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.core.style.ToStringCreator;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Simple JavaBean domain object representing an owner.
@@ -38,6 +41,9 @@ import java.util.*;
 @Table(name = "owners")
 public class Owner {
 
+    private static final Comparator<Pet> BY_NAME =
+        Comparator.comparing(Pet::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -63,27 +69,61 @@ public class Owner {
     @Digits(fraction = 0, integer = 12)
     private String telephone;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, mappedBy = "owner")
-    private Set<Pet> pets;
+    // Fetched by the repository methods that need it, in batches when several owners are read.
+    // The database returns the pets sorted by name, but its collation may differ from BY_NAME.
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "owner")
+    @BatchSize(size = 100)
+    @OrderBy("name")
+    private List<Pet> pets;
+
+    // Whether the pets are known to be in the BY_NAME order, which addPet relies on
+    @Transient
+    private boolean petsSorted;
 
-    protected Set<Pet> getPetsInternal() {
+    protected List<Pet> getPetsInternal() {
         if (this.pets == null) {
-            this.pets = new HashSet<>();
+            this.pets = new ArrayList<>();
+        }
+        if (!this.petsSorted) {
+            // Once per loaded owner, and only sorted when the database ordered them differently
+            if (!isSorted(this.pets)) {
+                this.pets.sort(BY_NAME);
+            }
+            this.petsSorted = true;
         }
         return this.pets;
     }
 
+    private static boolean isSorted(List<Pet> pets) {
+        for (int i = 1; i < pets.size(); i++) {
+            if (BY_NAME.compare(pets.get(i - 1), pets.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<Pet> getPets() {
-        final List<Pet> sortedPets = new ArrayList<>(getPetsInternal());
-        PropertyComparator.sort(sortedPets, new MutableSortDefinition("name", true, true));
-        return Collections.unmodifiableList(sortedPets);
+        return Collections.unmodifiableList(getPetsInternal());
     }
 
     public void addPet(Pet pet) {
-        getPetsInternal().add(pet);
+        List<Pet> pets = getPetsInternal();
+        int index = Collections.binarySearch(pets, pet, BY_NAME);
+        pets.add(index < 0 ? -index - 1 : index, pet);
         pet.setOwner(this);
     }
 
+    /**
+     * Adds several pets, sorting the pets once rather than once per pet.
+     */
+    public void addPets(Collection<Pet> newPets) {
+        List<Pet> pets = getPetsInternal();
+        pets.addAll(newPets);
+        pets.sort(BY_NAME);
+        newPets.forEach(pet -> pet.setOwner(this));
+    }
+
     @Override
     public String toString() {
         return new ToStringCreator(this)
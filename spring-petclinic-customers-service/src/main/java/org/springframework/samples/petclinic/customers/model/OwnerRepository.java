@@ -15,7 +15,18 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository class for <code>Owner</code> domain objects All method names are compliant with Spring Data naming
@@ -27,4 +38,59 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author Michael Isvy
  * @author Maciej Szarlinski
  */
-public interface OwnerRepository extends JpaRepository<Owner, Integer> { }
+public interface OwnerRepository extends JpaRepository<Owner, Integer> {
+
+    /**
+     * Retrieve an {@link Owner} together with its pets and their types.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"pets", "pets.type"})
+    Optional<Owner> findById(Integer id);
+
+    /**
+     * Retrieve all {@link Owner}s together with their pets and their types.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"pets", "pets.type"})
+    List<Owner> findAll();
+
+    /**
+     * Retrieve the given {@link Owner}s together with their pets and their types.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"pets", "pets.type"})
+    List<Owner> findAllById(Iterable<Integer> ids);
+
+    /**
+     * Retrieve all {@link Owner}s together with their pets and their types, as a stream backed by a
+     * JDBC cursor. Rows are ordered by owner so that the pets of an owner are read before the next
+     * owner is emitted. Must be consumed and closed within a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT owner FROM Owner owner LEFT JOIN FETCH owner.pets pet LEFT JOIN FETCH pet.type ORDER BY owner.id")
+    Stream<Owner> streamAll();
+
+    /**
+     * Retrieve the first {@link Owner}s whose last name starts with the given pattern, ordered by last name and id.
+     * The last name column is case insensitive, so the prefix ignores case while still being read from its index.
+     * Pets are not fetch joined, which would prevent paging in the database: they are loaded in batches.
+     * @param lastNamePattern a LIKE pattern ending with '%', '!' being the escape character
+     */
+    @Query("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastNamePattern ESCAPE '!' " +
+        "ORDER BY owner.lastName, owner.id")
+    List<Owner> findFirstByLastName(@Param("lastNamePattern") String lastNamePattern, Pageable pageable);
+
+    /**
+     * Retrieve the {@link Owner}s whose last name starts with the given pattern and which come after
+     * the given (last name, id) position, ordered by last name and id. Seeking the position keeps
+     * the cost of a page constant, whatever its depth.
+     */
+    @Query("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastNamePattern ESCAPE '!' " +
+        "AND (owner.lastName > :lastName OR (owner.lastName = :lastName AND owner.id > :id)) " +
+        "ORDER BY owner.lastName, owner.id")
+    List<Owner> findNextByLastName(@Param("lastNamePattern") String lastNamePattern,
+                                   @Param("lastName") String lastName, @Param("id") int id, Pageable pageable);
+}
@@ -34,8 +34,10 @@ import java.util.Objects;
 @Entity
 @Table(name = "pets")
 public class Pet {
+    // Ids are allocated 50 at a time from the sequence (a table on MySQL), so that inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pets_seq")
+    @SequenceGenerator(name = "pets_seq", sequenceName = "pets_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "name")
@@ -45,15 +47,20 @@ public class Pet {
     @Temporal(TemporalType.DATE)
     private Date birthDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "type_id")
     private PetType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     @JsonIgnore
     private Owner owner;
 
+    // Incremented on every update, so that concurrent edits of the same pet are detected
+    @Version
+    @Column(name = "version")
+    private Integer version;
+
     @Override
     public String toString() {
         return new ToStringCreator(this)
@@ -86,6 +93,10 @@ public class Pet {
         return this.owner;
     }
 
+    public Integer getVersion() {
+        return this.version;
+    }
+
     public void setId(Integer id) {
         this.id = id;
     }
@@ -106,6 +117,10 @@ public class Pet {
         this.owner = owner;
     }
 
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -15,12 +15,17 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Pet</code> domain objects All method names are compliant with Spring Data naming
@@ -34,16 +39,40 @@ import org.springframework.data.repository.query.Param;
  */
 public interface PetRepository extends JpaRepository<Pet, Integer> {
 
+    /**
+     * Retrieve a {@link Pet} together with its type and its owner, but not the other pets of the owner.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"type", "owner"})
+    Optional<Pet> findById(Integer id);
+
     /**
      * Retrieve all {@link PetType}s from the data store.
      * @return a Collection of {@link PetType}s.
      */
     @Query("SELECT ptype FROM PetType ptype ORDER BY ptype.name")
+    @Cacheable("petTypes")
     List<PetType> findPetTypes();
 
+    /**
+     * Retrieve a {@link PetType} by id. Unknown ids are not cached, so that a type added later is found.
+     */
     @Query("FROM PetType ptype WHERE ptype.id = :typeId")
+    @Cacheable(cacheNames = "petType", unless = "#result == null")
     Optional<PetType> findPetTypeById(@Param("typeId") int typeId);
 
+    /**
+     * Update the name, birth date and type of a {@link Pet} in a single statement, without loading it.
+     * @param version the version the change was based on, {@code null} to overwrite whatever version is stored
+     * @return 1 if the pet was updated, 0 if it does not exist or its version is not the given one any more
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Pet pet SET pet.name = :name, pet.birthDate = :birthDate, pet.type = :type, pet.version = pet.version + 1
+        WHERE pet.id = :id AND pet.version = COALESCE(:version, pet.version)""")
+    int updatePet(@Param("id") int id, @Param("version") Integer version, @Param("name") String name,
+                  @Param("birthDate") Date birthDate, @Param("type") PetType type);
 
 }
 
@@ -15,7 +15,9 @@
  */
 package org.springframework.samples.petclinic.customers.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 /**
  * @author Juergen Hoeller
@@ -24,6 +26,8 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "types")
+@BatchSize(size = 100)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class PetType {
 
     @Id
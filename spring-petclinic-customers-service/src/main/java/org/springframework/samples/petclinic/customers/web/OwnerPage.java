@@ -0,0 +1,29 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.customers.web;
+
+import org.springframework.samples.petclinic.customers.model.Owner;
+
+import java.util.List;
+
+/**
+ * A page of owners ordered by last name and id.
+ *
+ * @param owners     the owners of the page
+ * @param nextCursor opaque token to send back to read the next page, {@code null} on the last page
+ */
+record OwnerPage(List<Owner> owners, String nextCursor) {
+}
@@ -15,19 +15,37 @@
  */
 package org.springframework.samples.petclinic.customers.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.customers.web.mapper.OwnerEntityMapper;
 import org.springframework.samples.petclinic.customers.model.Owner;
 import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Juergen Hoeller
@@ -43,12 +61,22 @@ class OwnerResource {
 
     private static final Logger log = LoggerFactory.getLogger(OwnerResource.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OwnerRepository ownerRepository;
     private final OwnerEntityMapper ownerEntityMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ownerWriter;
 
-    OwnerResource(OwnerRepository ownerRepository, OwnerEntityMapper ownerEntityMapper) {
+    OwnerResource(OwnerRepository ownerRepository, OwnerEntityMapper ownerEntityMapper, EntityManager entityManager,
+                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
         this.ownerRepository = ownerRepository;
         this.ownerEntityMapper = ownerEntityMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ownerWriter = objectMapper.writerFor(Owner.class);
     }
 
     /**
@@ -77,6 +105,70 @@ class OwnerResource {
         return ownerRepository.findAll();
     }
 
+    /**
+     * Stream all Owners as newline delimited JSON. Owners are written and detached one by one,
+     * so that the memory used does not depend on the number of owners.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Owner> owners = ownerRepository.streamAll()) {
+                owners.forEach(owner -> {
+                    writeLine(outputStream, owner);
+                    entityManager.detach(owner);
+                });
+            }
+        });
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    /**
+     * Read a page of Owners ordered by last name, optionally restricted to the last names starting
+     * with the given prefix (case insensitive). The next page is read by sending back the cursor of
+     * the previous one.
+     */
+    @GetMapping(value = "/search")
+    public OwnerPage search(@RequestParam(value = "lastName", defaultValue = "") String lastNamePrefix,
+                            @RequestParam(value = "cursor", required = false) String cursor,
+                            @RequestParam(value = "size", defaultValue = "20") int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String lastNamePattern = lastNamePrefix
+            .replace("!", "!!")
+            .replace("%", "!%")
+            .replace("_", "!_") + "%";
+        // One more owner is read to know whether there is a next page
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        List<Owner> owners;
+        if (cursor == null || cursor.isEmpty()) {
+            owners = ownerRepository.findFirstByLastName(lastNamePattern, pageable);
+        } else {
+            OwnerCursor after = OwnerCursor.decode(cursor);
+            owners = ownerRepository.findNextByLastName(lastNamePattern, after.lastName(), after.id(), pageable);
+        }
+        if (owners.size() <= pageSize) {
+            return new OwnerPage(owners, null);
+        }
+        List<Owner> page = owners.subList(0, pageSize);
+        return new OwnerPage(page, OwnerCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Read List of Owners by their ids, in the order of the ids. The ids of unknown owners are
+     * skipped, as are repeated ids.
+     */
+    @GetMapping(params = "ids")
+    public List<Owner> findAllById(@RequestParam("ids") List<Integer> ownerIds) {
+        Map<Integer, Owner> ownersById = ownerRepository.findAllById(ownerIds).stream()
+            .collect(Collectors.toMap(Owner::getId, Function.identity()));
+        return ownerIds.stream()
+            .distinct()
+            .map(ownersById::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
     /**
      * Update Owner
      */
@@ -89,4 +181,13 @@ class OwnerResource {
         log.info("Saving owner {}", ownerModel);
         ownerRepository.save(ownerModel);
     }
+
+    private void writeLine(OutputStream outputStream, Owner owner) {
+        try {
+            outputStream.write(ownerWriter.writeValueAsBytes(owner));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
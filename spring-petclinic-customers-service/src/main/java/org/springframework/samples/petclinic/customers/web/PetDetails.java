@@ -36,9 +36,11 @@ record PetDetails(
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     Date birthDate,
 
-    PetType type
+    PetType type,
+
+    Integer version
 ) {
     public PetDetails(Pet pet) {
-        this(pet.getId(), pet.getName(), pet.getOwner().getFirstName() + " " + pet.getOwner().getLastName(), pet.getBirthDate(), pet.getType());
+        this(pet.getId(), pet.getName(), pet.getOwner().getFirstName() + " " + pet.getOwner().getLastName(), pet.getBirthDate(), pet.getType(), pet.getVersion());
     }
 }
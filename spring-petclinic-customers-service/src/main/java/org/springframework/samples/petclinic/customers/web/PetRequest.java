@@ -28,7 +28,8 @@ record PetRequest(int id,
                   Date birthDate,
                   @Size(min = 1)
                   String name,
-                  int typeId
+                  int typeId,
+                  Integer version
 ) {
 
 }
@@ -20,10 +20,17 @@ import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.customers.model.*;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Juergen Hoeller
@@ -65,12 +72,89 @@ class PetResource {
         return save(pet, petRequest);
     }
 
+    /**
+     * Creates or updates several pets of one owner, for instance a litter, in a single transaction. Requests with
+     * an id update that pet of the owner, the others create a new pet. The owner and its pets are only read when
+     * the batch updates some of them, the pet types come from their cache and the new pets are inserted in JDBC
+     * batches. Answers 201 Created when the batch created a pet and 200 OK when it only updated existing ones.
+     */
+    @PostMapping("/owners/{ownerId}/pets/bulk")
+    @Transactional
+    public ResponseEntity<List<Pet>> processBulkForm(
+        @RequestBody List<PetRequest> petRequests,
+        @PathVariable("ownerId") @Min(1) int ownerId) {
+
+        boolean updates = petRequests.stream().anyMatch(petRequest -> petRequest.id() > 0);
+        Owner owner;
+        Map<Integer, Pet> ownerPets;
+        if (updates) {
+            owner = ownerRepository.findById(ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Owner " + ownerId + " not found"));
+            ownerPets = owner.getPets().stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+        } else {
+            if (!ownerRepository.existsById(ownerId)) {
+                throw new ResourceNotFoundException("Owner " + ownerId + " not found");
+            }
+            owner = ownerRepository.getReferenceById(ownerId);
+            ownerPets = Map.of();
+        }
+        Map<Integer, PetType> petTypes = petRepository.findPetTypes().stream()
+            .collect(Collectors.toMap(PetType::getId, Function.identity()));
+
+        List<Pet> pets = new ArrayList<>(petRequests.size());
+        List<Pet> newPets = new ArrayList<>();
+        for (PetRequest petRequest : petRequests) {
+            PetType type = petTypes.get(petRequest.typeId());
+            if (type == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pet type " + petRequest.typeId() + " not found");
+            }
+            Pet pet = petRequest.id() > 0 ? ownerPets.get(petRequest.id()) : new Pet();
+            if (pet == null) {
+                throw new ResourceNotFoundException("Pet " + petRequest.id() + " of owner " + ownerId + " not found");
+            }
+            if (petRequest.version() != null && !petRequest.version().equals(pet.getVersion())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Pet " + petRequest.id() + " was modified concurrently");
+            }
+            pet.setName(petRequest.name());
+            pet.setBirthDate(petRequest.birthDate());
+            pet.setType(type);
+            if (pet.getId() == null) {
+                newPets.add(pet);
+            }
+            pets.add(pet);
+        }
+        if (updates) {
+            owner.addPets(newPets);
+        } else {
+            // Linking the pets to the owner reference alone keeps its pets from being loaded
+            newPets.forEach(pet -> pet.setOwner(owner));
+        }
+
+        log.info("Saving {} pets of owner {}", pets.size(), ownerId);
+        List<Pet> saved = petRepository.saveAll(pets);
+        return ResponseEntity.status(newPets.isEmpty() ? HttpStatus.OK : HttpStatus.CREATED).body(saved);
+    }
+
+    /**
+     * Updates the pet row alone, neither the pet nor its owner are loaded. When the request carries the version of
+     * the pet it was based on, a concurrent change of the pet in the meantime is answered with 409 Conflict.
+     */
     @PutMapping("/owners/*/pets/{petId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void processUpdateForm(@RequestBody PetRequest petRequest) {
         int petId = petRequest.id();
-        Pet pet = findPetById(petId);
-        save(pet, petRequest);
+        PetType type = petRepository.findPetTypeById(petRequest.typeId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pet type " + petRequest.typeId() + " not found"));
+
+        log.info("Updating pet {}", petId);
+        int updated = petRepository.updatePet(petId, petRequest.version(), petRequest.name(), petRequest.birthDate(), type);
+        if (updated == 0) {
+            if (!petRepository.existsById(petId)) {
+                throw new ResourceNotFoundException("Pet " + petId + " not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Pet " + petId + " was modified concurrently");
+        }
     }
 
     private Pet save(final Pet pet, final PetRequest petRequest) {
@@ -11,7 +11,8 @@ CREATE TABLE IF NOT EXISTS types (
 CREATE TABLE IF NOT EXISTS owners (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   first_name VARCHAR(30),
-  last_name VARCHAR(30),
+  -- Case insensitive, like the default collation of MySQL: the search by last name prefix uses the index
+  last_name VARCHAR(30) COLLATE utf8mb4_0900_ai_ci,
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
@@ -24,7 +25,23 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED NOT NULL,
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(name),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
 ) engine=InnoDB;
+
+-- Upgrade of a pets table created before the optimistic locking of pets.
+-- MySQL has no ADD COLUMN IF NOT EXISTS: the statement is chosen from the information schema.
+SET @add_pets_version = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE pets ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'pets' AND column_name = 'version');
+PREPARE add_pets_version FROM @add_pets_version;
+EXECUTE add_pets_version;
+DEALLOCATE PREPARE add_pets_version;
+
+-- MySQL has no sequences: Hibernate emulates the pets_seq sequence with this table
+CREATE TABLE IF NOT EXISTS pets_seq (
+  next_val BIGINT
+) engine=InnoDB;
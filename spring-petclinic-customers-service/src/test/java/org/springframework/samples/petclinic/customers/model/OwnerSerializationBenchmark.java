@@ -0,0 +1,104 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.support.MutableSortDefinition;
+import org.springframework.beans.support.PropertyComparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owners serialized to JSON per millisecond, when {@link Owner#getPets()} sorts a copy of the pets with a
+ * {@link PropertyComparator} on each call and when it returns a view of the pets already ordered by name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerSerializationBenchmark {
+
+    @Param({"2", "20", "200"})
+    private int pets;
+
+    private ObjectWriter writer;
+
+    private Owner owner;
+
+    private Owner legacyOwner;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(Owner.class);
+        owner = newOwner(new Owner());
+        legacyOwner = newOwner(new PropertyComparatorOwner());
+    }
+
+    @Benchmark
+    public byte[] propertyComparatorSort() throws Exception {
+        return writer.writeValueAsBytes(legacyOwner);
+    }
+
+    @Benchmark
+    public byte[] orderedView() throws Exception {
+        return writer.writeValueAsBytes(owner);
+    }
+
+    private Owner newOwner(Owner owner) {
+        owner.setFirstName("Jean");
+        owner.setLastName("Coleman");
+        owner.setAddress("105 N. Lake St.");
+        owner.setCity("Monona");
+        owner.setTelephone("6085552654");
+        PetType cat = new PetType();
+        cat.setId(1);
+        cat.setName("cat");
+        for (int i = pets; i > 0; i--) {
+            Pet pet = new Pet();
+            pet.setId(i);
+            pet.setName("Pet " + i);
+            pet.setBirthDate(new Date(0));
+            pet.setType(cat);
+            owner.addPet(pet);
+        }
+        return owner;
+    }
+
+    /**
+     * {@link Owner} as it read its pets before they were kept ordered by name.
+     */
+    static class PropertyComparatorOwner extends Owner {
+
+        @Override
+        public List<Pet> getPets() {
+            final List<Pet> sortedPets = new ArrayList<>(getPetsInternal());
+            PropertyComparator.sort(sortedPets, new MutableSortDefinition("name", true, true));
+            return Collections.unmodifiableList(sortedPets);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OwnerSerializationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
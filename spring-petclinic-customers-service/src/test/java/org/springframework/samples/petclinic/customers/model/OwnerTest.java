@@ -0,0 +1,29 @@
+package org.springframework.samples.petclinic.customers.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OwnerTest {
+
+    @Test
+    void petsLoadedInACaseSensitiveOrderAreSortedIgnoringCase() {
+        Owner owner = new Owner();
+        // As ordered by a case sensitive collation: upper case letters first
+        ReflectionTestUtils.setField(owner, "pets", new ArrayList<>(List.of(pet("Basil"), pet("Leo"), pet("bella"))));
+
+        owner.addPet(pet("kitty"));
+
+        assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Basil", "bella", "kitty", "Leo");
+    }
+
+    private static Pet pet(String name) {
+        Pet pet = new Pet();
+        pet.setName(name);
+        return pet;
+    }
+}
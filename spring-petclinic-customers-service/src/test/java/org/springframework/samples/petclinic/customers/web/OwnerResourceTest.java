@@ -0,0 +1,138 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.samples.petclinic.customers.model.Pet;
+import org.springframework.samples.petclinic.customers.model.PetType;
+import org.springframework.samples.petclinic.customers.web.mapper.OwnerEntityMapper;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(OwnerResource.class)
+@ActiveProfiles("test")
+class OwnerResourceTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    OwnerRepository ownerRepository;
+
+    @MockBean
+    OwnerEntityMapper ownerEntityMapper;
+
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldSearchOwnersPageByPage() throws Exception {
+        Owner betty = owner(2, "Betty", "Davis");
+        Owner harold = owner(4, "Harold", "Davis");
+        Owner david = owner(8, "David", "Schroeder");
+
+        given(ownerRepository.findFirstByLastName("Da%", PageRequest.ofSize(3)))
+            .willReturn(List.of(betty, harold, david));
+        String cursor = new OwnerCursor("Davis", 4).encode();
+        given(ownerRepository.findNextByLastName("Da%", "Davis", 4, PageRequest.ofSize(3)))
+            .willReturn(List.of(david));
+
+        mvc.perform(get("/owners/search?lastName=Da&size=2").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners.length()").value(2))
+            .andExpect(jsonPath("$.owners[0].firstName").value("Betty"))
+            .andExpect(jsonPath("$.owners[1].firstName").value("Harold"))
+            .andExpect(jsonPath("$.nextCursor").value(cursor));
+
+        mvc.perform(get("/owners/search?lastName=Da&size=2&cursor=" + cursor).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners.length()").value(1))
+            .andExpect(jsonPath("$.owners[0].firstName").value("David"))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        mvc.perform(get("/owners/search?cursor=not-a-cursor").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReadOwnersInTheOrderOfTheIds() throws Exception {
+        Owner george = owner(1, "George", "Franklin");
+        Owner betty = owner(2, "Betty", "Davis");
+        given(ownerRepository.findAllById(List.of(2, 42, 1, 2))).willReturn(List.of(george, betty));
+
+        mvc.perform(get("/owners?ids=2,42,1,2").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].firstName").value("Betty"))
+            .andExpect(jsonPath("$[1].firstName").value("George"));
+    }
+
+    @Test
+    void shouldStreamOwnersAsNdjson() throws Exception {
+        Owner george = owner(1, "George", "Franklin");
+        Pet leo = new Pet();
+        leo.setId(1);
+        leo.setName("Leo");
+        PetType cat = new PetType();
+        cat.setId(1);
+        cat.setName("cat");
+        leo.setType(cat);
+        george.addPet(leo);
+        Owner betty = owner(2, "Betty", "Davis");
+        AtomicBoolean closed = new AtomicBoolean();
+        given(ownerRepository.streamAll()).willReturn(Stream.of(george, betty).onClose(() -> closed.set(true)));
+
+        MvcResult result = mvc.perform(get("/owners").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"firstName\":\"George\"", "\"name\":\"Leo\"", "\"name\":\"cat\"");
+        assertThat(lines[1]).contains("\"firstName\":\"Betty\"", "\"pets\":[]");
+        assertThat(closed).isTrue();
+    }
+
+    private Owner owner(int id, String firstName, String lastName) {
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "id", id);
+        owner.setFirstName(firstName);
+        owner.setLastName(lastName);
+        return owner;
+    }
+}
@@ -1,5 +1,6 @@
 package org.springframework.samples.petclinic.customers.web;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -18,8 +19,15 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -57,6 +65,119 @@ class PetResourceTest {
             .andExpect(jsonPath("$.type.id").value(6));
     }
 
+    @Test
+    void shouldCreateAndUpdatePetsOfAnOwnerInBulk() throws Exception {
+        Pet pet = setupPet();
+
+        given(ownerRepository.findById(1)).willReturn(Optional.of(pet.getOwner()));
+        given(petRepository.findPetTypes()).willReturn(List.of(pet.getType()));
+        given(petRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    [{"id": 2, "name": "Basil II", "birthDate": "2024-04-01", "typeId": 6},
+                     {"name": "Rosemary", "birthDate": "2024-04-01", "typeId": 6}]
+                    """))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].id").value(2))
+            .andExpect(jsonPath("$[0].name").value("Basil II"))
+            .andExpect(jsonPath("$[1].name").value("Rosemary"))
+            .andExpect(jsonPath("$[1].type.id").value(6));
+    }
+
+    @Test
+    void shouldRejectABulkWithAnUnknownPetType() throws Exception {
+        Pet pet = setupPet();
+
+        given(ownerRepository.existsById(1)).willReturn(true);
+        given(ownerRepository.getReferenceById(1)).willReturn(pet.getOwner());
+        given(petRepository.findPetTypes()).willReturn(List.of(pet.getType()));
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"Rosemary\", \"birthDate\": \"2024-04-01\", \"typeId\": 42}]"))
+            .andExpect(status().isBadRequest());
+
+        verify(petRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldCreatePetsInBulkWithoutLoadingTheOwner() throws Exception {
+        Pet pet = setupPet();
+
+        given(ownerRepository.existsById(1)).willReturn(true);
+        given(ownerRepository.getReferenceById(1)).willReturn(pet.getOwner());
+        given(petRepository.findPetTypes()).willReturn(List.of(pet.getType()));
+        given(petRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"Rosemary\", \"birthDate\": \"2024-04-01\", \"typeId\": 6}]"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$[0].name").value("Rosemary"));
+
+        verify(ownerRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldAnswerNotFoundWhenCreatingPetsInBulkForAnUnknownOwner() throws Exception {
+        given(ownerRepository.existsById(1)).willReturn(false);
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"Rosemary\", \"birthDate\": \"2024-04-01\", \"typeId\": 6}]"))
+            .andExpect(status().isNotFound());
+
+        verify(petRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldAnswerOkWhenTheBulkOnlyUpdatesPets() throws Exception {
+        Pet pet = setupPet();
+
+        given(ownerRepository.findById(1)).willReturn(Optional.of(pet.getOwner()));
+        given(petRepository.findPetTypes()).willReturn(List.of(pet.getType()));
+        given(petRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": 2, \"name\": \"Basil II\", \"birthDate\": \"2024-04-01\", \"typeId\": 6}]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Basil II"));
+    }
+
+    @Test
+    void shouldUpdateAPetWithoutLoadingIt() throws Exception {
+        PetType petType = setupPet().getType();
+
+        given(petRepository.findPetTypeById(6)).willReturn(Optional.of(petType));
+        given(petRepository.updatePet(eq(2), eq(3), eq("Basil"), any(), eq(petType))).willReturn(1);
+
+        mvc.perform(put("/owners/2/pets/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\": 2, \"name\": \"Basil\", \"birthDate\": \"2012-08-06\", \"typeId\": 6, \"version\": 3}"))
+            .andExpect(status().isNoContent());
+
+        verify(petRepository, never()).findById(any());
+        verify(ownerRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldAnswerConflictWhenThePetWasModifiedConcurrently() throws Exception {
+        PetType petType = setupPet().getType();
+
+        given(petRepository.findPetTypeById(6)).willReturn(Optional.of(petType));
+        given(petRepository.updatePet(eq(2), eq(3), eq("Basil"), any(), eq(petType))).willReturn(0);
+        given(petRepository.existsById(2)).willReturn(true);
+
+        mvc.perform(put("/owners/2/pets/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\": 2, \"name\": \"Basil\", \"birthDate\": \"2012-08-06\", \"typeId\": 6, \"version\": 3}"))
+            .andExpect(status().isConflict());
+    }
+
     private Pet setupPet() {
         Owner owner = new Owner();
         owner.setFirstName("George");
@@ -0,0 +1,156 @@
+package org.springframework.samples.petclinic.customers.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 selects: counts the SQL statements executed by Hibernate for each read endpoint,
+ * against the sample data of the HSQLDB database. The tests that write run in a transaction rolled back
+ * at their end, so that the sample data stays the same for the other tests.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementCountIntegrationTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findOwnerUsesOneStatement() throws Exception {
+        mvc.perform(get("/owners/6").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pets.length()").value(2))
+            .andExpect(jsonPath("$.pets[0].type.name").value("cat"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllOwnersUsesOneStatement() throws Exception {
+        mvc.perform(get("/owners").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(10));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchOwnersUsesOneStatementPerAssociation() throws Exception {
+        mvc.perform(get("/owners/search?size=10").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners.length()").value(10));
+
+        // owners, then their pets and the pet types in one batch each
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void searchOwnersIgnoresTheCaseOfTheLastName() throws Exception {
+        mvc.perform(get("/owners/search?lastName=dAV").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owners.length()").value(2))
+            .andExpect(jsonPath("$.owners[0].lastName").value("Davis"));
+    }
+
+    @Test
+    void findPetUsesOneStatement() throws Exception {
+        mvc.perform(get("/owners/6/pets/7").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.owner").value("Jean Coleman"))
+            .andExpect(jsonPath("$.type.name").value("cat"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void petTypesAreReadFromTheCache() throws Exception {
+        mvc.perform(get("/petTypes").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+        statistics.clear();
+
+        mvc.perform(get("/petTypes").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(6));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "petTypes").tag("result", "hit")
+            .functionCounter().count()).isPositive();
+    }
+
+    @Test
+    @Transactional
+    void bulkPetCreationBatchesTheInserts() throws Exception {
+        mvc.perform(get("/petTypes").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+        statistics.clear();
+
+        mvc.perform(post("/owners/1/pets/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    [{"name": "Tom", "birthDate": "2024-04-01", "typeId": 1},
+                     {"name": "Dick", "birthDate": "2024-04-01", "typeId": 1},
+                     {"name": "Harry", "birthDate": "2024-04-01", "typeId": 1}]
+                    """))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(3));
+        // The endpoint joins the transaction of the test, which is not committed
+        entityManager.flush();
+
+        // the existence of the owner, the next block of pet ids, then one batch of inserts
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @Transactional
+    void updatePetUsesOneStatement() throws Exception {
+        String max = "{\"id\": 8, \"name\": \"Max\", \"birthDate\": \"2012-09-04\", \"typeId\": 1, \"version\": %d}";
+        mvc.perform(put("/owners/6/pets/8").contentType(MediaType.APPLICATION_JSON).content(max.formatted(0)))
+            .andExpect(status().isNoContent());
+        statistics.clear();
+
+        mvc.perform(put("/owners/6/pets/8").contentType(MediaType.APPLICATION_JSON).content(max.formatted(1)))
+            .andExpect(status().isNoContent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        mvc.perform(put("/owners/6/pets/8").contentType(MediaType.APPLICATION_JSON).content(max.formatted(1)))
+            .andExpect(status().isConflict());
+    }
+}
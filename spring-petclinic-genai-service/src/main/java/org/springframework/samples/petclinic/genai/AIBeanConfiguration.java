@@ -1,14 +1,29 @@
 package org.springframework.samples.petclinic.genai;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.ai.chat.memory.ChatMemory;
-import org.springframework.ai.chat.memory.InMemoryChatMemory;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.samples.petclinic.genai.vectorstore.FlatVectorStore;
+import org.springframework.samples.petclinic.genai.vectorstore.MappedVectorStore;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * A Configuration class for beans used by the Chat Client.
@@ -19,18 +34,57 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class AIBeanConfiguration {
 
 	@Bean
-	public ChatMemory chatMemory() {
-		return new InMemoryChatMemory();
+	public ChatMemory chatMemory(ChatProperties properties, MeterRegistry meterRegistry) {
+		return new CaffeineChatMemory(properties.memory(), meterRegistry);
+	}
+
+	@Bean
+	VectorStore vectorStore(EmbeddingModel embeddingModel, VectorStoreProperties properties) {
+		return switch (properties.type()) {
+			case SIMPLE -> new SimpleVectorStore(embeddingModel);
+			case FLAT -> new FlatVectorStore(embeddingModel);
+			case MAPPED -> new MappedVectorStore(embeddingModel, properties.file(), properties.probes());
+		};
+	}
+
+	/**
+	 * Runs the chat requests off the Netty event loop. The LLM calls the functions synchronously from within the
+	 * request, and they wait for the other services: the pool and its queue are bounded, so that slow services
+	 * cannot exhaust the threads of the rest of the application. Its usage is published as the
+	 * <code>executor.*</code> metrics tagged <code>name=genai.chat</code>.
+	 */
+	@Bean(destroyMethod = "dispose")
+	Scheduler chatScheduler(ChatProperties properties, MeterRegistry meterRegistry) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.threads(), properties.threads(),
+			60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.queueCapacity()),
+			new CustomizableThreadFactory("genai-chat-"));
+		executor.allowCoreThreadTimeOut(true);
+		return Schedulers.fromExecutorService(
+			ExecutorServiceMetrics.monitor(meterRegistry, executor, "genai.chat"), "genai-chat");
+	}
+
+	@Bean
+	@LoadBalanced
+	public WebClient.Builder loadBalancedWebClientBuilder() {
+		return WebClient.builder();
 	}
 
+	/**
+	 * Builder of the WebClient used by Spring AI to reach the LLM provider, which is not registered in Eureka.
+	 * The LLM calls the functions while it streams its answer, from the thread delivering the response: the
+	 * response is published on the chat scheduler, so that functions waiting for the other services never block
+	 * a Netty event loop.
+	 */
 	@Bean
-	VectorStore vectorStore(EmbeddingModel embeddingModel) {
-		return new SimpleVectorStore(embeddingModel);
+	@Primary
+	public WebClient.Builder webClientBuilder(Scheduler chatScheduler, ObjectProvider<WebClientCustomizer> customizers) {
+		WebClient.Builder builder = WebClient.builder();
+		customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+		return builder
+			.filter((request, next) -> next.exchange(request)
+				.map(response -> response.mutate()
+					.body(body -> body.publishOn(chatScheduler)
+						.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release))
+					.build()));
 	}
-	
-    @Bean
-    @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
-    }
 }
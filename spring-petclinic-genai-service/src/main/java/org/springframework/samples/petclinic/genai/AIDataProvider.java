@@ -1,15 +1,22 @@
 package org.springframework.samples.petclinic.genai;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.genai.dto.OwnerDetails;
 import org.springframework.samples.petclinic.genai.dto.PetDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,19 +35,26 @@ public class AIDataProvider {
 
     private final WebClient webClient;
 
+    // The functions are called synchronously by the LLM: they wait for the other services,
+    // but never longer than this
+    private final Duration timeout;
 
-	public AIDataProvider(WebClient.Builder webClientBuilder, VectorStore vectorStore) {
+
+	public AIDataProvider(@LoadBalanced WebClient.Builder webClientBuilder, VectorStore vectorStore, ChatProperties properties) {
 		this.webClient = webClientBuilder.build();
 		this.vectorStore = vectorStore;
+		this.timeout = properties.downstreamTimeout();
 	}
 
 	public OwnersResponse getAllOwners() {
-		return new OwnersResponse(webClient
+		// Owners are streamed by the customers-service, which then does not hold them all in memory
+		return new OwnersResponse(await(webClient
 	            .get()
 	            .uri(ownersHostname + "owners")
+	            .accept(MediaType.APPLICATION_NDJSON)
 	            .retrieve()
-	            .bodyToMono(new ParameterizedTypeReference<List<OwnerDetails>>() {})
-	            .block());
+	            .bodyToFlux(OwnerDetails.class)
+	            .collectList()));
 	}
 
 	public VetResponse getVets(VetRequest request) throws JsonProcessingException {
@@ -59,19 +73,41 @@ public class AIDataProvider {
 	}
 
 	public AddedPetResponse addPetToOwner(AddPetRequest request) {
-		return new AddedPetResponse(webClient
+		return new AddedPetResponse(await(webClient
 	            .post()
 	            .uri(ownersHostname + "owners/"+request.ownerId()+"/pets")
 	            .bodyValue(request.pet())
-	            .retrieve().bodyToMono(PetDetails.class).block());
+	            .retrieve().bodyToMono(PetDetails.class)));
 	}
 
 	public OwnerResponse addOwnerToPetclinic(OwnerRequest ownerRequest) {
-		return new OwnerResponse(webClient
+		return new OwnerResponse(await(webClient
 	            .post()
 	            .uri(ownersHostname + "owners")
 	            .bodyValue(ownerRequest)
-	            .retrieve().bodyToMono(OwnerDetails.class).block());
+	            .retrieve().bodyToMono(OwnerDetails.class)));
+	}
+
+	/**
+	 * Waits for the response of another service. The functions run on the chat scheduler, also when the chat is
+	 * streamed (see {@link AIBeanConfiguration#webClientBuilder}), where waiting is allowed.
+	 */
+	private <T> T await(Mono<T> response) {
+		CompletableFuture<T> future = response.toFuture();
+		try {
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		catch (TimeoutException e) {
+			future.cancel(true);
+			throw new IllegalStateException("No response within " + timeout, e);
+		}
 	}
 
 }
@@ -0,0 +1,75 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+
+/**
+ * {@link ChatMemory} keeping the last messages of each conversation, within bounds:
+ * <ul>
+ * <li>at most <code>genai.chat.memory.messages</code> messages per conversation, older ones are dropped;</li>
+ * <li>conversations idle for <code>genai.chat.memory.idle-timeout</code> are forgotten;</li>
+ * <li>the text of all conversations stays under <code>genai.chat.memory.max-characters</code> characters, the least
+ * recently used conversations being evicted first.</li>
+ * </ul>
+ * The number of conversations and the evictions are published as the <code>cache.*</code> metrics tagged
+ * <code>cache=chatMemory</code>.
+ */
+public class CaffeineChatMemory implements ChatMemory {
+
+    private final Cache<String, List<Message>> conversations;
+
+    private final int maxMessages;
+
+    public CaffeineChatMemory(ChatProperties.Memory properties, MeterRegistry meterRegistry) {
+        this.maxMessages = properties.messages();
+        this.conversations = Caffeine.newBuilder()
+            .maximumWeight(properties.maxCharacters())
+            .weigher((String conversationId, List<Message> messages) -> weight(messages))
+            .expireAfterAccess(properties.idleTimeout())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, conversations, "chatMemory");
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        // Conversations are replaced rather than modified, so that Caffeine weighs them again
+        conversations.asMap().compute(conversationId, (id, current) -> {
+            List<Message> conversation = new ArrayList<>(current != null ? current : List.of());
+            conversation.addAll(messages);
+            int size = conversation.size();
+            return List.copyOf(conversation.subList(Math.max(0, size - maxMessages), size));
+        });
+    }
+
+    @Override
+    public List<Message> get(String conversationId, int lastN) {
+        List<Message> conversation = conversations.getIfPresent(conversationId);
+        if (conversation == null) {
+            return List.of();
+        }
+        int size = conversation.size();
+        return conversation.subList(Math.max(0, size - lastN), size);
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        conversations.invalidate(conversationId);
+    }
+
+    private static int weight(List<Message> messages) {
+        int weight = 0;
+        for (Message message : messages) {
+            String content = message.getContent();
+            weight += content != null ? content.length() : 0;
+        }
+        return weight;
+    }
+}
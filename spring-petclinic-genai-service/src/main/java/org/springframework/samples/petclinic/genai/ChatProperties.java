@@ -0,0 +1,34 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Typesafe configuration of the chat.
+ *
+ * @param threads            threads of the scheduler running the chat requests, and with them the LLM function calls
+ * @param queueCapacity      chat requests waiting for a thread, beyond which the chat answers that it is unavailable
+ * @param downstreamTimeout  maximum time a function call waits for the other services
+ * @param memory             bounds of the memory of the conversations
+ */
+@ConfigurationProperties(prefix = "genai.chat")
+public record ChatProperties(
+    @DefaultValue("16") int threads,
+    @DefaultValue("100") int queueCapacity,
+    @DefaultValue("5s") Duration downstreamTimeout,
+    @DefaultValue Memory memory
+) {
+    /**
+     * @param messages      messages remembered per conversation, and sent back to the LLM with each question
+     * @param idleTimeout   time after which a conversation without new messages is forgotten
+     * @param maxCharacters total length of the messages remembered for all conversations
+     */
+    public record Memory(
+        @DefaultValue("10") int messages,
+        @DefaultValue("30m") Duration idleTimeout,
+        @DefaultValue("5000000") long maxCharacters
+    ) {
+    }
+}
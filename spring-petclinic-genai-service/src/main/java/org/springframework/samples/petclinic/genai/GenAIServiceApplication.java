@@ -17,6 +17,7 @@ package org.springframework.samples.petclinic.genai;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 /**
@@ -24,6 +25,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @EnableDiscoveryClient
 @SpringBootApplication
+@EnableConfigurationProperties({ChatProperties.class, VectorStoreProperties.class})
 public class GenAIServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,17 +1,27 @@
 package org.springframework.samples.petclinic.genai;
 
+import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.CHAT_MEMORY_CONVERSATION_ID_KEY;
 import static org.springframework.ai.chat.client.advisor.AbstractChatMemoryAdvisor.DEFAULT_CHAT_MEMORY_CONVERSATION_ID;
 
+import java.util.UUID;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * This REST controller is being invoked by the in order to interact with the LLM
@@ -24,13 +34,24 @@ public class PetclinicChatClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(PetclinicChatClient.class);
 
+    private static final String UNAVAILABLE = "Chat is currently unavailable. Please try again later.";
+
+    // Sent by chat.js, so that each user has a conversation of their own
+    static final String CONVERSATION_ID_HEADER = "X-Conversation-Id";
+
+    private static final int MAX_CONVERSATION_ID_LENGTH = 64;
+
 	// ChatModel is the primary interfaces for interacting with an LLM
 	// it is a request/response interface that implements the ModelModel
 	// interface. Make suer to visit the source code of the ChatModel and
 	// checkout the interfaces in the core Spring AI package.
 	private final ChatClient chatClient;
 
-	public PetclinicChatClient(ChatClient.Builder builder, ChatMemory chatMemory) {
+	private final Scheduler chatScheduler;
+
+	public PetclinicChatClient(ChatClient.Builder builder, ChatMemory chatMemory, ChatProperties properties,
+							   Scheduler chatScheduler) {
+		this.chatScheduler = chatScheduler;
 		// @formatter:off
 		this.chatClient = builder
 				.defaultSystem("""
@@ -45,8 +66,9 @@ public class PetclinicChatClient {
                           For owners, pets or visits - provide the correct data.
                           """)
 				.defaultAdvisors(
-						// Chat memory helps us keep context when using the chatbot for up to 10 previous messages.
-						new MessageChatMemoryAdvisor(chatMemory, DEFAULT_CHAT_MEMORY_CONVERSATION_ID, 10), // CHAT MEMORY
+						// Chat memory helps us keep context when using the chatbot for up to 10 previous messages (genai.chat.memory.messages).
+						new MessageChatMemoryAdvisor(chatMemory, DEFAULT_CHAT_MEMORY_CONVERSATION_ID,
+							properties.memory().messages()), // CHAT MEMORY
 						new SimpleLoggerAdvisor()
 						)
                 .defaultFunctions("listOwners", "addOwnerToPetclinic", "addPetToOwner", "listVets")
@@ -54,22 +76,65 @@ public class PetclinicChatClient {
   }
 
   @PostMapping("/chatclient")
-  public String exchange(@RequestBody String query) {
-	  try {
-		  //All chatbot messages go through this endpoint
-		  //and are passed to the LLM
-		  return
+  public Mono<String> exchange(@RequestBody String query,
+		  @RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationId) {
+	  String conversation = conversation(conversationId);
+	  //All chatbot messages go through this endpoint
+	  //and are passed to the LLM, on the chat scheduler as the call blocks
+	  return Mono.fromCallable(() ->
 		  this.chatClient
 		  .prompt()
 	      .user(
 	          u ->
 	              u.text(query)
 	              )
+	      .advisors(a -> a.param(CHAT_MEMORY_CONVERSATION_ID_KEY, conversation))
 	      .call()
-	      .content();
-	  } catch (Exception exception) {
-          LOG.error("Error processing chat message", exception);
- 	      return "Chat is currently unavailable. Please try again later.";
+	      .content())
+	      .subscribeOn(chatScheduler)
+	      .onErrorResume(exception -> {
+	          LOG.error("Error processing chat message", exception);
+	          return Mono.just(UNAVAILABLE);
+	      });
+  }
+
+  /**
+   * Same as {@link #exchange(String, String)}, but sends the answer as server-sent events, one per chunk of text received
+   * from the LLM, so that the user sees it as soon as it starts.
+   */
+  @PostMapping(value = "/chatclient/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<String> stream(@RequestBody String query,
+		  @RequestHeader(name = CONVERSATION_ID_HEADER, required = false) String conversationId) {
+	  String conversation = conversation(conversationId);
+	  return this.chatClient
+		  .prompt()
+	      .user(
+	          u ->
+	              u.text(query)
+	              )
+	      .advisors(a -> a.param(CHAT_MEMORY_CONVERSATION_ID_KEY, conversation))
+	      .stream()
+	      .content()
+	      .subscribeOn(chatScheduler)
+	      .onErrorResume(exception -> {
+	          LOG.error("Error streaming chat message", exception);
+	          return Flux.just(UNAVAILABLE);
+	      });
+  }
+
+  /**
+   * Clients that do not identify their conversation get one of their own for this message only: they never read
+   * the conversations of the others. Identifiers longer than {@value #MAX_CONVERSATION_ID_LENGTH} characters are
+   * rejected, since the memory is kept per identifier.
+   */
+  private static String conversation(String conversationId) {
+	  if (conversationId == null || conversationId.isBlank()) {
+		  return UUID.randomUUID().toString();
+	  }
+	  if (conversationId.length() > MAX_CONVERSATION_ID_LENGTH) {
+		  throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+			  CONVERSATION_ID_HEADER + " is longer than " + MAX_CONVERSATION_ID_LENGTH + " characters");
 	  }
+	  return conversationId;
   }
 }
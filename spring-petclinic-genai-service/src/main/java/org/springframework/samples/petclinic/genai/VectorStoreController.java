@@ -6,25 +6,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.document.DocumentReader;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.reader.JsonReader;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.samples.petclinic.genai.dto.Vet;
+import org.springframework.samples.petclinic.genai.vectorstore.FlatVectorStore;
+import org.springframework.samples.petclinic.genai.vectorstore.MappedVectorStore;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Set;
 
@@ -39,11 +47,14 @@ public class VectorStoreController {
 	private final Logger logger = LoggerFactory.getLogger(VectorStoreController.class);
 
 	private final VectorStore vectorStore;
+	private final EmbeddingModel embeddingModel;
     private final WebClient webClient;
 
-    public VectorStoreController(VectorStore vectorStore, WebClient.Builder webClientBuilder) {
+    public VectorStoreController(VectorStore vectorStore, EmbeddingModel embeddingModel,
+			@LoadBalanced WebClient.Builder webClientBuilder) {
 		this.webClient = webClientBuilder.build();
 		this.vectorStore = vectorStore;
+		this.embeddingModel = embeddingModel;
 	}
 
 	@EventListener
@@ -54,9 +65,21 @@ public class VectorStoreController {
 		if (resource.exists()) {
 			// In order to save on AI credits, use a pre-embedded database that was saved
 			// to
-			// disk based on the current data in the h2 data.sql file
-			File file = resource.getFile();
-			((SimpleVectorStore) this.vectorStore).load(file);
+			// disk based on the current data in the h2 data.sql file.
+			// It is read as a stream: Resource.getFile() fails once packaged in the jar
+			if (vectorStore instanceof MappedVectorStore mappedVectorStore) {
+				long sourceVersion = sourceVersion(resource.getContentAsByteArray());
+				if (isKeptFromAPreviousRun(mappedVectorStore, sourceVersion)) {
+					return;
+				}
+				mappedVectorStore.load(resource, sourceVersion);
+			}
+			else if (vectorStore instanceof FlatVectorStore flatVectorStore) {
+				flatVectorStore.load(resource);
+			}
+			else {
+				((SimpleVectorStore) this.vectorStore).load(resource);
+			}
 			logger.info("vector store loaded from existing vectorstore.json file in the classpath");
 			return;
 		}
@@ -78,7 +101,18 @@ public class VectorStoreController {
 
 		List<Document> documents = reader.get();
 		// add the documents to the vector store
-		this.vectorStore.add(documents);
+		if (vectorStore instanceof MappedVectorStore mappedVectorStore) {
+			// The vets are embedded again when they or the embedding model changed
+			long sourceVersion = sourceVersion(vetsAsJson.getContentAsByteArray(),
+				embeddingModel.getClass().getName().getBytes(StandardCharsets.UTF_8));
+			if (isKeptFromAPreviousRun(mappedVectorStore, sourceVersion)) {
+				return;
+			}
+			mappedVectorStore.replace(documents, sourceVersion);
+		}
+		else {
+			this.vectorStore.add(documents);
+		}
 
 		if (vectorStore instanceof SimpleVectorStore) {
             // java:S5443 Sonar rule: Using publicly writable directories is security-sensitive
@@ -91,6 +125,31 @@ public class VectorStoreController {
 		logger.info("vector store loaded with {} documents", documents.size());
 	}
 
+	private boolean isKeptFromAPreviousRun(MappedVectorStore mappedVectorStore, long sourceVersion) {
+		if (mappedVectorStore.size() > 0 && mappedVectorStore.sourceVersion() == sourceVersion) {
+			logger.info("vector store mapped with {} documents", mappedVectorStore.size());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * First 64 bits of the SHA-256 digest of the source of the vector store, recorded in the index file: a file kept
+	 * from a previous run is rebuilt once its source changed.
+	 */
+	static long sourceVersion(byte[]... parts) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (byte[] part : parts) {
+				digest.update(part);
+			}
+			return ByteBuffer.wrap(digest.digest()).getLong();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	public Resource convertListToJsonResource(List<Vet> vets) {
 		ObjectMapper objectMapper = new ObjectMapper();
 		try {
@@ -0,0 +1,34 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.samples.petclinic.genai.vectorstore.FlatVectorStore;
+import org.springframework.samples.petclinic.genai.vectorstore.MappedVectorStore;
+
+/**
+ * Typesafe configuration of the vector store of the vets.
+ *
+ * @param type   <code>simple</code> keeps the vectors on the heap and compares the query with all of them,
+ *               <code>flat</code> does the same on contiguous arrays and all the cores, see {@link FlatVectorStore},
+ *               <code>mapped</code> keeps them in a memory-mapped index file, see {@link MappedVectorStore}
+ * @param file   index file of the <code>mapped</code> store, kept across restarts
+ * @param probes lists of vectors scanned by a search of the <code>mapped</code> store: more is slower but more accurate
+ */
+@ConfigurationProperties(prefix = "genai.vectorstore")
+public record VectorStoreProperties(
+    @DefaultValue("simple") Type type,
+    Path file,
+    @DefaultValue("8") int probes
+) {
+    public VectorStoreProperties {
+        if (file == null) {
+            file = Path.of(System.getProperty("java.io.tmpdir"), "petclinic-vets.vectors");
+        }
+    }
+
+    public enum Type {
+        SIMPLE, FLAT, MAPPED
+    }
+}
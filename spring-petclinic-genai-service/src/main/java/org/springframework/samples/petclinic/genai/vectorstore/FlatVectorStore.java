@@ -0,0 +1,170 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.Resource;
+
+/**
+ * In-memory {@link VectorStore} comparing the query with every vector, as {@link SimpleVectorStore} does, but with
+ * the normalized vectors stored one after the other in a single <code>float[]</code>: a comparison is a dot product
+ * over contiguous memory, without boxing nor a norm to compute. Large stores are scanned in slices on all the cores,
+ * each keeping its best documents, which are merged at the end.
+ * <p>
+ * Searches are exact, which suits up to a few hundred thousands documents. Filter expressions are not supported.
+ */
+public class FlatVectorStore implements VectorStore {
+
+    // Below, a slice is scanned faster than it is handed to another core
+    private static final int MIN_FLOATS_PER_SLICE = 1 << 18;
+
+    private final EmbeddingModel embeddingModel;
+
+    private final int parallelism;
+
+    private volatile Rows rows = new Rows(0, new float[0], new Document[0]);
+
+    public FlatVectorStore(EmbeddingModel embeddingModel) {
+        this(embeddingModel, Runtime.getRuntime().availableProcessors());
+    }
+
+    FlatVectorStore(EmbeddingModel embeddingModel, int parallelism) {
+        this.embeddingModel = embeddingModel;
+        this.parallelism = parallelism;
+    }
+
+    public int size() {
+        return rows.documents().length;
+    }
+
+    @Override
+    public synchronized void add(List<Document> documents) {
+        Map<String, Document> all = currentDocuments();
+        for (Document document : documents) {
+            if (document.getEmbedding() == null || document.getEmbedding().length == 0) {
+                document.setEmbedding(embeddingModel.embed(document));
+            }
+            all.put(document.getId(), document);
+        }
+        rows = Rows.of(all.values());
+    }
+
+    @Override
+    public synchronized Optional<Boolean> delete(List<String> idList) {
+        Map<String, Document> all = currentDocuments();
+        all.keySet().removeAll(idList);
+        rows = Rows.of(all.values());
+        return Optional.of(true);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        if (request.hasFilterExpression()) {
+            throw new UnsupportedOperationException("Filter expressions are not supported by the flat vector store");
+        }
+        Rows current = rows;
+        if (current.documents().length == 0) {
+            return List.of();
+        }
+        float[] query = VectorMath.normalize(embeddingModel.embed(request.getQuery()));
+        if (query.length != current.dimensions()) {
+            throw new IllegalArgumentException("Query of " + query.length + " dimensions, expected " + current.dimensions());
+        }
+        List<Document> documents = new ArrayList<>();
+        for (TopK.ScoredRow row : search(current, query, request.getTopK()).sorted()) {
+            if (row.score() < request.getSimilarityThreshold()) {
+                break;
+            }
+            Document document = current.documents()[row.row()];
+            Map<String, Object> metadata = new LinkedHashMap<>(document.getMetadata());
+            metadata.put("distance", 1 - row.score());
+            documents.add(new Document(document.getId(), document.getContent(), metadata));
+        }
+        return documents;
+    }
+
+    /**
+     * Adds the documents, with their embeddings, of a file saved by {@link SimpleVectorStore#save}.
+     */
+    public void load(Resource resource) throws IOException {
+        add(SimpleVectorStoreFile.read(resource));
+    }
+
+    private TopK search(Rows rows, float[] query, int topK) {
+        int count = rows.documents().length;
+        int slices = (int) Math.min(parallelism, (long) count * rows.dimensions() / MIN_FLOATS_PER_SLICE);
+        if (slices <= 1) {
+            return scan(rows, query, topK, 0, count);
+        }
+        int rowsPerSlice = (count + slices - 1) / slices;
+        return IntStream.range(0, slices).parallel()
+            .mapToObj(slice -> scan(rows, query, topK, slice * rowsPerSlice, Math.min(count, (slice + 1) * rowsPerSlice)))
+            .reduce((best, other) -> {
+                best.merge(other);
+                return best;
+            })
+            .orElseThrow();
+    }
+
+    private static TopK scan(Rows rows, float[] query, int topK, int from, int to) {
+        TopK best = new TopK(topK);
+        float[] vectors = rows.vectors();
+        int dimensions = rows.dimensions();
+        for (int row = from; row < to; row++) {
+            best.offer(row, VectorMath.dot(query, vectors, row * dimensions));
+        }
+        return best;
+    }
+
+    private Map<String, Document> currentDocuments() {
+        Rows current = rows;
+        Map<String, Document> documents = new LinkedHashMap<>();
+        for (int row = 0; row < current.documents().length; row++) {
+            Document stored = current.documents()[row];
+            Document document = new Document(stored.getId(), stored.getContent(), stored.getMetadata());
+            document.setEmbedding(Arrays.copyOfRange(current.vectors(), row * current.dimensions(),
+                (row + 1) * current.dimensions()));
+            documents.put(document.getId(), document);
+        }
+        return documents;
+    }
+
+    /**
+     * Immutable content of the store, replaced as a whole on writes so that searches need no lock. The documents are
+     * kept without their embedding, which is row <code>i</code> of <code>vectors</code>.
+     */
+    private record Rows(int dimensions, float[] vectors, Document[] documents) {
+
+        static Rows of(Iterable<Document> all) {
+            List<Document> documents = new ArrayList<>();
+            all.forEach(documents::add);
+            if (documents.isEmpty()) {
+                return new Rows(0, new float[0], new Document[0]);
+            }
+            int dimensions = documents.get(0).getEmbedding().length;
+            float[] vectors = new float[documents.size() * dimensions];
+            Document[] stored = new Document[documents.size()];
+            for (int row = 0; row < stored.length; row++) {
+                Document document = documents.get(row);
+                if (document.getEmbedding().length != dimensions) {
+                    throw new IllegalArgumentException("Document " + document.getId() + " has an embedding of "
+                        + document.getEmbedding().length + " dimensions, expected " + dimensions);
+                }
+                System.arraycopy(VectorMath.normalize(document.getEmbedding()), 0, vectors, row * dimensions, dimensions);
+                stored[row] = new Document(document.getId(), document.getContent(), document.getMetadata());
+            }
+            return new Rows(dimensions, vectors, stored);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.document.Document;
+
+/**
+ * Inverted file (IVF) index of normalized vectors, stored in a file that is memory-mapped when opened: neither the
+ * vectors nor the documents are copied on the heap, and opening the index does not depend on its size.
+ * <p>
+ * The vectors are clustered with spherical k-means into about <code>sqrt(n)</code> lists. A search only scans the
+ * lists whose centroids are nearest to the query, so it reads a fraction of the vectors: the more lists are probed,
+ * the better the recall. Indexes of fewer than {@value #MIN_VECTORS_PER_LIST} vectors have a single list, which is
+ * an exact search.
+ * <p>
+ * Layout of the file, little-endian:
+ * <pre>
+ * header      magic, version, dimensions, count, lists (int), position of the document offsets, version of the
+ *             source of the documents (long)
+ * centroids   lists * dimensions floats
+ * list starts lists + 1 ints, first row of each list
+ * vectors     count * dimensions floats, grouped by list, from a 64 bytes aligned position
+ * documents   JSON id, content and metadata of each row
+ * offsets     count + 1 longs, position of the document of each row in the documents
+ * </pre>
+ */
+final class IvfIndexFile {
+
+    private static final int MAGIC = 0x50435649;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 40;
+
+    private static final int MIN_VECTORS_PER_LIST = 1024;
+
+    private static final int TRAINING_VECTORS_PER_LIST = 64;
+
+    private static final int TRAINING_ITERATIONS = 10;
+
+    // A mapped buffer cannot exceed 2 GB: larger regions are mapped in chunks
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int dimensions;
+
+    private final int count;
+
+    private final int lists;
+
+    private final long sourceVersion;
+
+    private final float[] centroids;
+
+    private final int[] listStarts;
+
+    private final int rowsPerChunk;
+
+    private final FloatBuffer[] vectorChunks;
+
+    private final LongBuffer documentOffsets;
+
+    private final ByteBuffer[] documentChunks;
+
+    private IvfIndexFile(int dimensions, int count, int lists, long sourceVersion, float[] centroids, int[] listStarts,
+                         int rowsPerChunk, FloatBuffer[] vectorChunks, LongBuffer documentOffsets,
+                         ByteBuffer[] documentChunks) {
+        this.dimensions = dimensions;
+        this.count = count;
+        this.lists = lists;
+        this.sourceVersion = sourceVersion;
+        this.centroids = centroids;
+        this.listStarts = listStarts;
+        this.rowsPerChunk = rowsPerChunk;
+        this.vectorChunks = vectorChunks;
+        this.documentOffsets = documentOffsets;
+        this.documentChunks = documentChunks;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Version of the source the documents were read from, given when the index was written.
+     */
+    long sourceVersion() {
+        return sourceVersion;
+    }
+
+    /**
+     * The rows nearest to the query, best first, scored by cosine similarity.
+     * @param probes number of lists scanned
+     */
+    TopK.ScoredRow[] search(float[] query, int topK, int probes) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Query of " + query.length + " dimensions, expected " + dimensions);
+        }
+        float[] normalized = VectorMath.normalize(query);
+        TopK nearestLists = new TopK(Math.min(probes, lists));
+        for (int list = 0; list < lists; list++) {
+            nearestLists.offer(list, VectorMath.dot(normalized, centroids, list * dimensions));
+        }
+        TopK best = new TopK(topK);
+        for (TopK.ScoredRow list : nearestLists.sorted()) {
+            for (int row = listStarts[list.row()]; row < listStarts[list.row() + 1]; row++) {
+                best.offer(row, VectorMath.dot(normalized, vectorChunks[row / rowsPerChunk], (row % rowsPerChunk) * dimensions));
+            }
+        }
+        return best.sorted();
+    }
+
+    /**
+     * The document of a row, without its embedding.
+     */
+    Document document(int row) {
+        long start = documentOffsets.get(row);
+        byte[] json = new byte[(int) (documentOffsets.get(row + 1) - start)];
+        for (int read = 0; read < json.length; ) {
+            long position = start + read;
+            ByteBuffer chunk = documentChunks[(int) (position / MAX_CHUNK_BYTES)];
+            int length = (int) Math.min(json.length - read, chunk.capacity() - position % MAX_CHUNK_BYTES);
+            chunk.get((int) (position % MAX_CHUNK_BYTES), json, read, length);
+            read += length;
+        }
+        try {
+            Map<String, Object> document = objectMapper.readValue(json, new TypeReference<>() {
+            });
+            @SuppressWarnings("unchecked")
+            Map<String, Object> metadata = (Map<String, Object>) document.get("metadata");
+            return new Document((String) document.get("id"), (String) document.get("content"), new LinkedHashMap<>(metadata));
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Corrupted document of row " + row, e);
+        }
+    }
+
+    /**
+     * All the documents, with their normalized embedding, for instance to write them again with others.
+     */
+    List<Document> documents() {
+        List<Document> documents = new ArrayList<>(count);
+        for (int row = 0; row < count; row++) {
+            Document document = document(row);
+            float[] embedding = new float[dimensions];
+            vectorChunks[row / rowsPerChunk].get((row % rowsPerChunk) * dimensions, embedding);
+            document.setEmbedding(embedding);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    static IvfIndexFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Mappings stay valid once the channel is closed
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a vector index");
+            }
+            if (header.getInt() != VERSION) {
+                throw new FormatChangedException(file + " was written in another format of vector index");
+            }
+            int dimensions = header.getInt();
+            int count = header.getInt();
+            int lists = header.getInt();
+            long offsetsPosition = header.getLong();
+            long sourceVersion = header.getLong();
+
+            long position = HEADER_BYTES;
+            float[] centroids = new float[lists * dimensions];
+            map(channel, position, 4L * centroids.length).asFloatBuffer().get(centroids);
+            position += 4L * centroids.length;
+            int[] listStarts = new int[lists + 1];
+            map(channel, position, 4L * listStarts.length).asIntBuffer().get(listStarts);
+            position = align(position + 4L * listStarts.length);
+
+            long rowBytes = 4L * dimensions;
+            int rowsPerChunk = (int) (MAX_CHUNK_BYTES / rowBytes);
+            FloatBuffer[] vectorChunks = new FloatBuffer[(count + rowsPerChunk - 1) / rowsPerChunk];
+            for (int chunk = 0; chunk < vectorChunks.length; chunk++) {
+                int rows = Math.min(rowsPerChunk, count - chunk * rowsPerChunk);
+                vectorChunks[chunk] = map(channel, position + chunk * rowsPerChunk * rowBytes, rows * rowBytes).asFloatBuffer();
+            }
+            position += count * rowBytes;
+
+            long documentBytes = offsetsPosition - position;
+            ByteBuffer[] documentChunks = new ByteBuffer[(int) ((documentBytes + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES)];
+            for (int chunk = 0; chunk < documentChunks.length; chunk++) {
+                long start = chunk * MAX_CHUNK_BYTES;
+                documentChunks[chunk] = map(channel, position + start, Math.min(MAX_CHUNK_BYTES, documentBytes - start));
+            }
+            LongBuffer documentOffsets = map(channel, offsetsPosition, 8L * (count + 1)).asLongBuffer();
+
+            return new IvfIndexFile(dimensions, count, lists, sourceVersion, centroids, listStarts, rowsPerChunk,
+                vectorChunks, documentOffsets, documentChunks);
+        }
+    }
+
+    /**
+     * Writes the index of the documents, which all have an embedding of the same dimensions. The file is replaced
+     * atomically, so that an index already opened from it keeps working.
+     * @param sourceVersion version of the source the documents were read from, read back by {@link #sourceVersion()}
+     */
+    static void write(Path file, Collection<Document> documents, long sourceVersion) throws IOException {
+        if (documents.isEmpty()) {
+            throw new IllegalArgumentException("No documents to index");
+        }
+        List<Document> rows = new ArrayList<>(documents);
+        int count = rows.size();
+        int dimensions = rows.get(0).getEmbedding().length;
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            float[] embedding = rows.get(i).getEmbedding();
+            if (embedding.length != dimensions) {
+                throw new IllegalArgumentException("Document " + rows.get(i).getId() + " has an embedding of "
+                    + embedding.length + " dimensions, expected " + dimensions);
+            }
+            vectors[i] = VectorMath.normalize(embedding);
+        }
+
+        int lists = count < MIN_VECTORS_PER_LIST ? 1 : (int) Math.sqrt(count);
+        float[][] centroids = train(vectors, lists, new Random(42));
+        int[] assignment = assign(vectors, centroids);
+        int[] listStarts = new int[lists + 1];
+        for (int list : assignment) {
+            listStarts[list + 1]++;
+        }
+        for (int list = 0; list < lists; list++) {
+            listStarts[list + 1] += listStarts[list];
+        }
+        int[] order = new int[count];
+        int[] next = listStarts.clone();
+        for (int row = 0; row < count; row++) {
+            order[next[assignment[row]]++] = row;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (Output output = new Output(FileChannel.open(temporary, StandardOpenOption.WRITE))) {
+            output.skip(HEADER_BYTES);
+            for (float[] centroid : centroids) {
+                output.putFloats(centroid);
+            }
+            for (int listStart : listStarts) {
+                output.putInt(listStart);
+            }
+            output.skip(align(output.position()) - output.position());
+            for (int row : order) {
+                output.putFloats(vectors[row]);
+            }
+            long documentsPosition = output.position();
+            long[] documentOffsets = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                Document document = rows.get(order[i]);
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", document.getId());
+                json.put("content", document.getContent());
+                json.put("metadata", document.getMetadata());
+                output.putBytes(objectMapper.writeValueAsBytes(json));
+                documentOffsets[i + 1] = output.position() - documentsPosition;
+            }
+            long offsetsPosition = output.position();
+            for (long documentOffset : documentOffsets) {
+                output.putLong(documentOffset);
+            }
+            output.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(count).putInt(lists).putLong(offsetsPosition)
+                .putLong(sourceVersion);
+            output.channel.write(header.flip(), 0);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Spherical k-means on a sample of the vectors: centroids are normalized means, compared by dot product.
+     */
+    static float[][] train(float[][] vectors, int lists, Random random) {
+        int count = vectors.length;
+        lists = Math.min(lists, count);
+        int[] sample = IntStream.range(0, count).toArray();
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swapped = sample[i];
+            sample[i] = sample[j];
+            sample[j] = swapped;
+        }
+        float[][] training = new float[Math.min(count, lists * TRAINING_VECTORS_PER_LIST)][];
+        for (int i = 0; i < training.length; i++) {
+            training[i] = vectors[sample[i]];
+        }
+        float[][] centroids = new float[lists][];
+        for (int list = 0; list < lists; list++) {
+            centroids[list] = training[list].clone();
+        }
+        for (int iteration = 0; iteration < TRAINING_ITERATIONS && lists > 1; iteration++) {
+            int[] assignment = assign(training, centroids);
+            float[][] sums = new float[lists][training[0].length];
+            int[] sizes = new int[lists];
+            for (int i = 0; i < training.length; i++) {
+                float[] sum = sums[assignment[i]];
+                for (int d = 0; d < sum.length; d++) {
+                    sum[d] += training[i][d];
+                }
+                sizes[assignment[i]]++;
+            }
+            for (int list = 0; list < lists; list++) {
+                // An empty list starts again from a random vector
+                centroids[list] = sizes[list] > 0
+                    ? VectorMath.normalize(sums[list])
+                    : training[random.nextInt(training.length)].clone();
+            }
+        }
+        return centroids;
+    }
+
+    private static int[] assign(float[][] vectors, float[][] centroids) {
+        int[] assignment = new int[vectors.length];
+        IntStream.range(0, vectors.length).parallel().forEach(i -> {
+            int nearest = 0;
+            float best = Float.NEGATIVE_INFINITY;
+            for (int list = 0; list < centroids.length; list++) {
+                float score = VectorMath.dot(vectors[i], centroids[list]);
+                if (score > best) {
+                    best = score;
+                    nearest = list;
+                }
+            }
+            assignment[i] = nearest;
+        });
+        return assignment;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long position) {
+        return (position + 63) & ~63L;
+    }
+
+    /**
+     * The file is a vector index written by another version of this class: it is to be written again.
+     */
+    static final class FormatChangedException extends IOException {
+
+        FormatChangedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Buffered, little-endian writes to a file channel.
+     */
+    private static final class Output implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long position;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void skip(long bytes) throws IOException {
+            for (long i = 0; i < bytes; i++) {
+                ensure(1).put((byte) 0);
+            }
+            position += bytes;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4).putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8).putLong(value);
+            position += 8;
+        }
+
+        void putFloats(float[] values) throws IOException {
+            for (float value : values) {
+                ensure(4).putFloat(value);
+            }
+            position += 4L * values.length;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int written = 0; written < bytes.length; ) {
+                int length = Math.min(bytes.length - written, ensure(1).remaining());
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+            position += bytes.length;
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
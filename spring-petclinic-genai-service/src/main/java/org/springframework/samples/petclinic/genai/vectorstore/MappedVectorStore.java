@@ -0,0 +1,163 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.Resource;
+
+/**
+ * {@link VectorStore} persisted in an {@link IvfIndexFile}: the store is usable as soon as the file is mapped,
+ * whatever its size, and its vectors stay off the heap. Searches are approximate, they only scan the
+ * <code>probes</code> lists of vectors nearest to the query.
+ * <p>
+ * Every {@link #add(List) add} or {@link #delete(List) delete} writes the whole index again, so the store suits
+ * data loaded in bulk, such as the vets. Filter expressions are not supported.
+ * <p>
+ * The index records the version of the source of its documents, so that a file kept from a previous run is only
+ * reused while its source has not changed, see {@link #replace(List, long)}.
+ */
+public class MappedVectorStore implements VectorStore {
+
+    private final EmbeddingModel embeddingModel;
+
+    private final Path file;
+
+    private final int probes;
+
+    private volatile IvfIndexFile index;
+
+    public MappedVectorStore(EmbeddingModel embeddingModel, Path file, int probes) {
+        this.embeddingModel = embeddingModel;
+        this.file = file;
+        this.probes = probes;
+        if (Files.exists(file)) {
+            try {
+                this.index = IvfIndexFile.open(file);
+            }
+            catch (IvfIndexFile.FormatChangedException e) {
+                // Left empty: the file is written again in the current format with the next documents
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Cannot open the vector index " + file, e);
+            }
+        }
+    }
+
+    public int size() {
+        IvfIndexFile current = index;
+        return current != null ? current.count() : 0;
+    }
+
+    /**
+     * Version of the source of the documents, as given to {@link #replace(List, long)}, or 0 when the store is empty
+     * or its documents were only added.
+     */
+    public long sourceVersion() {
+        IvfIndexFile current = index;
+        return current != null ? current.sourceVersion() : 0;
+    }
+
+    @Override
+    public synchronized void add(List<Document> documents) {
+        Map<String, Document> all = currentDocuments();
+        put(all, documents);
+        write(all, sourceVersion());
+    }
+
+    /**
+     * Replaces all the documents by the given ones, read from a source of the given version.
+     */
+    public synchronized void replace(List<Document> documents, long sourceVersion) {
+        Map<String, Document> all = new LinkedHashMap<>();
+        put(all, documents);
+        write(all, sourceVersion);
+    }
+
+    @Override
+    public synchronized Optional<Boolean> delete(List<String> idList) {
+        Map<String, Document> all = currentDocuments();
+        all.keySet().removeAll(idList);
+        write(all, sourceVersion());
+        return Optional.of(true);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        if (request.hasFilterExpression()) {
+            throw new UnsupportedOperationException("Filter expressions are not supported by the mapped vector store");
+        }
+        IvfIndexFile current = index;
+        if (current == null) {
+            return List.of();
+        }
+        List<Document> documents = new ArrayList<>();
+        for (TopK.ScoredRow row : current.search(embeddingModel.embed(request.getQuery()), request.getTopK(), probes)) {
+            if (row.score() < request.getSimilarityThreshold()) {
+                break;
+            }
+            Document document = current.document(row.row());
+            document.getMetadata().put("distance", 1 - row.score());
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * Adds the documents, with their embeddings, of a file saved by {@link SimpleVectorStore#save}.
+     */
+    public void load(Resource resource) throws IOException {
+        add(SimpleVectorStoreFile.read(resource));
+    }
+
+    /**
+     * Replaces all the documents by those, with their embeddings, of a file saved by {@link SimpleVectorStore#save}.
+     */
+    public void load(Resource resource, long sourceVersion) throws IOException {
+        replace(SimpleVectorStoreFile.read(resource), sourceVersion);
+    }
+
+    private void put(Map<String, Document> all, List<Document> documents) {
+        for (Document document : documents) {
+            if (document.getEmbedding() == null || document.getEmbedding().length == 0) {
+                document.setEmbedding(embeddingModel.embed(document));
+            }
+            all.put(document.getId(), document);
+        }
+    }
+
+    private Map<String, Document> currentDocuments() {
+        Map<String, Document> documents = new LinkedHashMap<>();
+        if (index != null) {
+            index.documents().forEach(document -> documents.put(document.getId(), document));
+        }
+        return documents;
+    }
+
+    private void write(Map<String, Document> documents, long sourceVersion) {
+        try {
+            if (documents.isEmpty()) {
+                Files.deleteIfExists(file);
+                index = null;
+            }
+            else {
+                IvfIndexFile.write(file, documents.values(), sourceVersion);
+                index = IvfIndexFile.open(file);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the vector index " + file, e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.core.io.Resource;
+
+/**
+ * Reads the documents, with their embeddings, of a file saved by {@link SimpleVectorStore#save}. The resource is
+ * read as a stream, so that it can be packaged in the application jar.
+ */
+final class SimpleVectorStoreFile {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleVectorStoreFile() {
+    }
+
+    static List<Document> read(Resource resource) throws IOException {
+        List<Document> documents = new ArrayList<>();
+        try (InputStream json = resource.getInputStream()) {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> metadata = objectMapper.convertValue(node.path("metadata"), Map.class);
+                Document document = new Document(node.get("id").asText(), node.get("content").asText(),
+                    metadata != null ? metadata : new LinkedHashMap<>());
+                document.setEmbedding(objectMapper.convertValue(node.get("embedding"), float[].class));
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+}
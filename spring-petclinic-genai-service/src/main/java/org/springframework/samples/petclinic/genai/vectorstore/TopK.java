@@ -0,0 +1,94 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.util.Arrays;
+
+/**
+ * The <code>k</code> best scored rows offered to it, kept in a bounded min-heap: offering a row costs
+ * <code>O(log k)</code> at most, and nothing once the heap is full of better rows.
+ */
+final class TopK {
+
+    private final int[] rows;
+
+    private final float[] scores;
+
+    private int size;
+
+    TopK(int k) {
+        this.rows = new int[k];
+        this.scores = new float[k];
+    }
+
+    void offer(int row, float score) {
+        if (size < rows.length) {
+            rows[size] = row;
+            scores[size] = score;
+            siftUp(size++);
+        }
+        else if (rows.length > 0 && score > scores[0]) {
+            rows[0] = row;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    void merge(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.rows[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * The rows offered, best first, and their scores.
+     */
+    ScoredRow[] sorted() {
+        ScoredRow[] sorted = new ScoredRow[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = new ScoredRow(rows[i], scores[i]);
+        }
+        Arrays.sort(sorted, (a, b) -> Float.compare(b.score(), a.score()));
+        return sorted;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (scores[parent] <= scores[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    record ScoredRow(int row, float score) {
+    }
+}
@@ -0,0 +1,87 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Similarity arithmetic of the vector stores. Vectors are normalized when they are stored, so that their cosine
+ * similarity is their dot product.
+ */
+final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    static float dot(float[] a, float[] b) {
+        return dot(a, b, 0);
+    }
+
+    /**
+     * Dot product of <code>a</code> with the vector stored from index <code>offset</code> of <code>b</code>.
+     * <p>
+     * The loop keeps 8 independent sums: a single sum makes each addition wait for the previous one, and the JIT
+     * does not reorder float additions by itself.
+     */
+    static float dot(float[] a, float[] b, int offset) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+        int length = a.length;
+        int bound = length & ~7;
+        int i = 0;
+        for (; i < bound; i += 8) {
+            int j = offset + i;
+            s0 += a[i] * b[j];
+            s1 += a[i + 1] * b[j + 1];
+            s2 += a[i + 2] * b[j + 2];
+            s3 += a[i + 3] * b[j + 3];
+            s4 += a[i + 4] * b[j + 4];
+            s5 += a[i + 5] * b[j + 5];
+            s6 += a[i + 6] * b[j + 6];
+            s7 += a[i + 7] * b[j + 7];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[offset + i];
+        }
+        return ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7));
+    }
+
+    /**
+     * Dot product of <code>a</code> with the vector stored from index <code>offset</code> of the buffer, unrolled as
+     * {@link #dot(float[], float[], int)}.
+     */
+    static float dot(float[] a, FloatBuffer b, int offset) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+        int length = a.length;
+        int bound = length & ~7;
+        int i = 0;
+        for (; i < bound; i += 8) {
+            int j = offset + i;
+            s0 += a[i] * b.get(j);
+            s1 += a[i + 1] * b.get(j + 1);
+            s2 += a[i + 2] * b.get(j + 2);
+            s3 += a[i + 3] * b.get(j + 3);
+            s4 += a[i + 4] * b.get(j + 4);
+            s5 += a[i + 5] * b.get(j + 5);
+            s6 += a[i + 6] * b.get(j + 6);
+            s7 += a[i + 7] * b.get(j + 7);
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b.get(offset + i);
+        }
+        return ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7));
+    }
+}
@@ -0,0 +1,56 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaffeineChatMemoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CaffeineChatMemory chatMemory = new CaffeineChatMemory(
+        new ChatProperties.Memory(3, Duration.ofMinutes(30), 1_000), meterRegistry);
+
+    @Test
+    void shouldKeepConversationsApart() {
+        chatMemory.add("alice", new UserMessage("Which vets do surgery?"));
+        chatMemory.add("bob", new UserMessage("List the owners"));
+
+        assertThat(chatMemory.get("alice", 10)).extracting(Message::getContent).containsExactly("Which vets do surgery?");
+        assertThat(chatMemory.get("bob", 10)).extracting(Message::getContent).containsExactly("List the owners");
+        assertThat(chatMemory.get("carol", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTheLastMessagesOfAConversation() {
+        chatMemory.add("alice", List.of(new UserMessage("1"), new AssistantMessage("2")));
+        chatMemory.add("alice", List.of(new UserMessage("3"), new AssistantMessage("4")));
+
+        assertThat(chatMemory.get("alice", 10)).extracting(Message::getContent).containsExactly("2", "3", "4");
+        assertThat(chatMemory.get("alice", 2)).extracting(Message::getContent).containsExactly("3", "4");
+    }
+
+    @Test
+    void shouldForgetAClearedConversation() {
+        chatMemory.add("alice", new UserMessage("Which vets do surgery?"));
+
+        chatMemory.clear("alice");
+
+        assertThat(chatMemory.get("alice", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldPublishTheNumberOfConversations() {
+        chatMemory.add("alice", new UserMessage("Which vets do surgery?"));
+        chatMemory.add("bob", new UserMessage("List the owners"));
+
+        assertThat(meterRegistry.get("cache.size").tag("cache", "chatMemory").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,160 @@
+package org.springframework.samples.petclinic.genai;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chats with a stub {@link ChatModel} answering in three chunks.
+ */
+@WebFluxTest(PetclinicChatClient.class)
+@Import(PetclinicChatClientTest.StubChatModelConfiguration.class)
+@ActiveProfiles("test")
+class PetclinicChatClientTest {
+
+    private static final List<String> ANSWER = List.of("We have ", "six ", "vets.");
+
+    @Autowired
+    WebTestClient client;
+
+    @Autowired
+    StubChatModel chatModel;
+
+    @Test
+    void shouldAnswerAtOnce() {
+        client.post().uri("/chatclient")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"How many vets do you have?\"")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("We have six vets.");
+    }
+
+    @Test
+    void shouldStreamTheAnswerAsItIsGenerated() {
+        List<String> events = client.post().uri("/chatclient/stream")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue("\"How many vets do you have?\"")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(String.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(events).containsExactlyElementsOf(ANSWER);
+    }
+
+    @Test
+    void shouldNotShareTheMemoryOfMessagesWithoutConversation() {
+        client.post().uri("/chatclient")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"My cat is called Leo\"")
+            .exchange()
+            .expectStatus().isOk();
+
+        client.post().uri("/chatclient")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"What is my cat called?\"")
+            .exchange()
+            .expectStatus().isOk();
+
+        assertThat(chatModel.lastPrompt.getContents()).doesNotContain("Leo");
+    }
+
+    @Test
+    void shouldRememberTheMessagesOfAConversation() {
+        client.post().uri("/chatclient")
+            .header(PetclinicChatClient.CONVERSATION_ID_HEADER, "george")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"My cat is called Leo\"")
+            .exchange()
+            .expectStatus().isOk();
+
+        client.post().uri("/chatclient")
+            .header(PetclinicChatClient.CONVERSATION_ID_HEADER, "george")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"What is my cat called?\"")
+            .exchange()
+            .expectStatus().isOk();
+
+        assertThat(chatModel.lastPrompt.getContents()).contains("Leo");
+    }
+
+    @Test
+    void shouldRejectATooLongConversation() {
+        client.post().uri("/chatclient/stream")
+            .header(PetclinicChatClient.CONVERSATION_ID_HEADER, "x".repeat(65))
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("\"How many vets do you have?\"")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @TestConfiguration
+    static class StubChatModelConfiguration {
+
+        @Bean
+        StubChatModel stubChatModel() {
+            return new StubChatModel();
+        }
+
+        @Bean
+        ChatClient.Builder chatClientBuilder(StubChatModel stubChatModel) {
+            return ChatClient.builder(stubChatModel);
+        }
+
+        @Bean
+        ChatMemory chatMemory() {
+            return new InMemoryChatMemory();
+        }
+
+        @Bean
+        Scheduler chatScheduler() {
+            return Schedulers.boundedElastic();
+        }
+    }
+
+    static class StubChatModel implements ChatModel {
+
+        volatile Prompt lastPrompt;
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            lastPrompt = prompt;
+            return response(String.join("", ANSWER));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.fromIterable(ANSWER).map(StubChatModel::response);
+        }
+
+        private static ChatResponse response(String text) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlatVectorStoreTest extends VectorStoreContract<FlatVectorStore> {
+
+    @Override
+    protected FlatVectorStore createVectorStore() {
+        return new FlatVectorStore(embeddingModel);
+    }
+
+    @Override
+    protected int size(FlatVectorStore vectorStore) {
+        return vectorStore.size();
+    }
+
+    @Override
+    protected void load(FlatVectorStore vectorStore, Resource resource) throws IOException {
+        vectorStore.load(resource);
+    }
+
+    @Test
+    void shouldFindTheSameDocumentsOnOneOrSeveralCores() {
+        Random random = new Random(7);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i <= 20_000; i++) {
+            float[] embedding = new float[67];
+            for (int d = 0; d < embedding.length; d++) {
+                embedding[d] = (float) random.nextGaussian();
+            }
+            embeddings.put("vet " + i, embedding);
+            documents.add(new Document(String.valueOf(i), "vet " + i, Map.of()));
+        }
+        FlatVectorStore sequential = new FlatVectorStore(embeddingModel, 1);
+        sequential.add(documents);
+        FlatVectorStore parallel = new FlatVectorStore(embeddingModel, 4);
+        parallel.add(documents);
+        SearchRequest request = SearchRequest.query("vet 20000").withTopK(20);
+
+        assertThat(parallel.similaritySearch(request)).extracting(Document::getId)
+            .startsWith("20000")
+            .containsExactlyElementsOf(sequential.similaritySearch(request).stream().map(Document::getId).toList());
+    }
+}
@@ -0,0 +1,98 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedVectorStoreTest extends VectorStoreContract<MappedVectorStore> {
+
+    @TempDir
+    Path directory;
+
+    @Override
+    protected MappedVectorStore createVectorStore() {
+        return new MappedVectorStore(embeddingModel, directory.resolve("vets.vectors"), 8);
+    }
+
+    @Override
+    protected int size(MappedVectorStore vectorStore) {
+        return vectorStore.size();
+    }
+
+    @Override
+    protected void load(MappedVectorStore vectorStore, Resource resource) throws IOException {
+        vectorStore.load(resource);
+    }
+
+    @Test
+    void shouldFindTheNearestDocumentsAfterARestart() {
+        givenSpecialtyEmbeddings();
+        Path file = directory.resolve("vets.vectors");
+        new MappedVectorStore(embeddingModel, file, 1).add(specialtyDocuments());
+
+        MappedVectorStore vectorStore = new MappedVectorStore(embeddingModel, file, 1);
+        List<Document> documents = vectorStore.similaritySearch(SearchRequest.query("teeth").withTopK(2));
+
+        assertThat(vectorStore.size()).isEqualTo(3);
+        assertThat(documents).extracting(Document::getId).containsExactly("2", "1");
+        assertThat(documents.get(0).getMetadata()).containsEntry("vet", "Rafael Ortega").containsKey("distance");
+    }
+
+    @Test
+    void shouldKeepTheVersionOfTheSourceAcrossARestart() {
+        givenSpecialtyEmbeddings();
+        Path file = directory.resolve("vets.vectors");
+        MappedVectorStore vectorStore = new MappedVectorStore(embeddingModel, file, 1);
+        vectorStore.add(List.of(new Document("4", "surgery", Map.of())));
+        vectorStore.replace(specialtyDocuments(), 42);
+
+        MappedVectorStore restarted = new MappedVectorStore(embeddingModel, file, 1);
+
+        assertThat(restarted.sourceVersion()).isEqualTo(42);
+        assertThat(restarted.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldStartEmptyFromAnIndexOfAnotherFormat() throws IOException {
+        Path file = directory.resolve("vets.vectors");
+        Files.write(file, ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN).putInt(0x50435649).putInt(1).array());
+
+        MappedVectorStore vectorStore = new MappedVectorStore(embeddingModel, file, 1);
+
+        assertThat(vectorStore.size()).isZero();
+        assertThat(vectorStore.sourceVersion()).isZero();
+    }
+
+    @Test
+    void shouldFindAnIndexedVectorAmongSeveralLists() {
+        Random random = new Random(7);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            float[] embedding = new float[16];
+            for (int d = 0; d < embedding.length; d++) {
+                embedding[d] = (float) random.nextGaussian();
+            }
+            embeddings.put("vet " + i, embedding);
+            documents.add(new Document(String.valueOf(i), "vet " + i, Map.of()));
+        }
+        MappedVectorStore vectorStore = new MappedVectorStore(embeddingModel, directory.resolve("vets.vectors"), 1);
+        vectorStore.add(documents);
+
+        assertThat(vectorStore.similaritySearch(SearchRequest.query("vet 1234").withTopK(1)))
+            .extracting(Document::getId).containsExactly("1234");
+    }
+}
@@ -0,0 +1,110 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+
+/**
+ * Exact top-k search over 1536-dimensional embeddings: {@link SimpleVectorStore} against {@link FlatVectorStore}
+ * restricted to one core and using all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SimilaritySearchBenchmark {
+
+    private static final String QUERY = "query";
+
+    @Param({"1000", "10000", "100000"})
+    private int vectors;
+
+    @Param("1536")
+    private int dimensions;
+
+    private SimpleVectorStore simpleVectorStore;
+
+    private FlatVectorStore sequentialFlatVectorStore;
+
+    private FlatVectorStore flatVectorStore;
+
+    private SearchRequest request;
+
+    @Setup
+    public void setUp() {
+        // SimpleVectorStore logs every document it adds
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.springframework.ai")).setLevel(Level.WARN);
+
+        Random random = new Random(42);
+        Map<String, float[]> embeddings = new HashMap<>();
+        List<Document> documents = new ArrayList<>(vectors);
+        for (int i = 0; i < vectors; i++) {
+            embeddings.put("vet " + i, gaussian(random));
+            documents.add(new Document("vet " + i));
+        }
+        embeddings.put(QUERY, gaussian(random));
+        VectorStoreBenchmark.LookupEmbeddingModel embeddingModel = new VectorStoreBenchmark.LookupEmbeddingModel(embeddings);
+
+        simpleVectorStore = new SimpleVectorStore(embeddingModel);
+        simpleVectorStore.add(documents);
+        sequentialFlatVectorStore = new FlatVectorStore(embeddingModel, 1);
+        sequentialFlatVectorStore.add(documents);
+        flatVectorStore = new FlatVectorStore(embeddingModel);
+        flatVectorStore.add(documents);
+        request = SearchRequest.query(QUERY).withTopK(10);
+    }
+
+    @Benchmark
+    public List<Document> simpleVectorStore() {
+        return simpleVectorStore.similaritySearch(request);
+    }
+
+    @Benchmark
+    public List<Document> flatVectorStoreOneCore() {
+        return sequentialFlatVectorStore.similaritySearch(request);
+    }
+
+    @Benchmark
+    public List<Document> flatVectorStore() {
+        return flatVectorStore.similaritySearch(request);
+    }
+
+    private float[] gaussian(Random random) {
+        float[] vector = new float[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SimilaritySearchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
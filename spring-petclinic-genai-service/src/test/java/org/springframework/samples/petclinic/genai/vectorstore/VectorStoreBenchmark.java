@@ -0,0 +1,164 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+
+/**
+ * Search latency of the {@link MappedVectorStore} IVF index, probing 8 lists, against the full scan of
+ * {@link SimpleVectorStore}, plus the time to open an index file already written. The vectors are drawn around a
+ * few hundred centers, the way embeddings of related texts cluster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class VectorStoreBenchmark {
+
+    private static final String QUERY = "query";
+
+    @Param({"10000", "100000", "1000000"})
+    private int vectors;
+
+    @Param("384")
+    private int dimensions;
+
+    @Param("8")
+    private int probes;
+
+    private LookupEmbeddingModel embeddingModel;
+
+    private Path file;
+
+    private SimpleVectorStore simpleVectorStore;
+
+    private MappedVectorStore mappedVectorStore;
+
+    private SearchRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        // SimpleVectorStore logs every document it adds
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.springframework.ai")).setLevel(Level.WARN);
+
+        Random random = new Random(42);
+        float[][] centers = new float[256][];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = gaussian(random, 1);
+        }
+        Map<String, float[]> embeddings = new HashMap<>();
+        List<Document> documents = new ArrayList<>(vectors);
+        for (int i = 0; i < vectors; i++) {
+            float[] embedding = gaussian(random, 0.5f);
+            float[] center = centers[random.nextInt(centers.length)];
+            for (int d = 0; d < dimensions; d++) {
+                embedding[d] += center[d];
+            }
+            embeddings.put("vet " + i, embedding);
+            documents.add(new Document("vet " + i));
+        }
+        embeddings.put(QUERY, gaussian(random, 1));
+        embeddingModel = new LookupEmbeddingModel(embeddings);
+
+        simpleVectorStore = new SimpleVectorStore(embeddingModel);
+        simpleVectorStore.add(documents);
+        file = Files.createTempFile("vectors", ".index");
+        Files.delete(file);
+        mappedVectorStore = new MappedVectorStore(embeddingModel, file, probes);
+        mappedVectorStore.add(documents);
+        request = SearchRequest.query(QUERY).withTopK(10);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Document> simpleVectorStoreSearch() {
+        return simpleVectorStore.similaritySearch(request);
+    }
+
+    @Benchmark
+    public List<Document> mappedVectorStoreSearch() {
+        return mappedVectorStore.similaritySearch(request);
+    }
+
+    @Benchmark
+    public int mappedVectorStoreOpen() {
+        return new MappedVectorStore(embeddingModel, file, probes).size();
+    }
+
+    private float[] gaussian(Random random, float deviation) {
+        float[] vector = new float[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            vector[d] = (float) random.nextGaussian() * deviation;
+        }
+        return vector;
+    }
+
+    /**
+     * Embeds the texts with the vectors generated for them, without calling an AI provider.
+     */
+    static class LookupEmbeddingModel implements EmbeddingModel {
+
+        private final Map<String, float[]> embeddings;
+
+        LookupEmbeddingModel(Map<String, float[]> embeddings) {
+            this.embeddings = embeddings;
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> results = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                results.add(new Embedding(embeddings.get(text), results.size()));
+            }
+            return new EmbeddingResponse(results);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return embeddings.get(document.getContent());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(VectorStoreBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package org.springframework.samples.petclinic.genai.vectorstore;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests shared by the vector stores of the genai service ({@link FlatVectorStore} and {@link MappedVectorStore}).
+ * The documents are embedded with the vectors put in {@link #embeddings}.
+ */
+abstract class VectorStoreContract<S extends VectorStore> {
+
+    protected final Map<String, float[]> embeddings = new HashMap<>();
+
+    protected final EmbeddingModel embeddingModel = new VectorStoreBenchmark.LookupEmbeddingModel(embeddings);
+
+    protected abstract S createVectorStore();
+
+    protected abstract int size(S vectorStore);
+
+    protected abstract void load(S vectorStore, Resource resource) throws IOException;
+
+    /**
+     * Three specialties along the axes, and a query close to dentistry.
+     */
+    protected void givenSpecialtyEmbeddings() {
+        embeddings.put("surgery", new float[]{1, 0, 0});
+        embeddings.put("dentistry", new float[]{0, 1, 0});
+        embeddings.put("radiology", new float[]{0, 0, 1});
+        embeddings.put("teeth", new float[]{0.2f, 0.9f, 0});
+    }
+
+    protected List<Document> specialtyDocuments() {
+        return List.of(
+            new Document("1", "surgery", Map.of("vet", "Linda Douglas")),
+            new Document("2", "dentistry", Map.of("vet", "Rafael Ortega")),
+            new Document("3", "radiology", Map.of()));
+    }
+
+    @Test
+    void shouldFindTheNearestDocuments() {
+        givenSpecialtyEmbeddings();
+        S vectorStore = createVectorStore();
+        vectorStore.add(specialtyDocuments());
+
+        List<Document> documents = vectorStore.similaritySearch(SearchRequest.query("teeth").withTopK(2));
+
+        assertThat(documents).extracting(Document::getId).containsExactly("2", "1");
+        assertThat(documents.get(0).getMetadata()).containsEntry("vet", "Rafael Ortega").containsKey("distance");
+        assertThat(vectorStore.similaritySearch(SearchRequest.query("teeth").withSimilarityThreshold(0.5)))
+            .extracting(Document::getId).containsExactly("2");
+    }
+
+    @Test
+    void shouldReplaceAndDeleteDocumentsById() {
+        embeddings.put("surgery", new float[]{1, 0});
+        embeddings.put("dentistry", new float[]{0, 1});
+        S vectorStore = createVectorStore();
+        vectorStore.add(List.of(new Document("1", "surgery", Map.of()), new Document("2", "surgery", Map.of())));
+        vectorStore.add(List.of(new Document("2", "dentistry", Map.of())));
+
+        assertThat(vectorStore.similaritySearch(SearchRequest.query("dentistry").withTopK(1)))
+            .extracting(Document::getId).containsExactly("2");
+
+        vectorStore.delete(List.of("1", "2"));
+
+        assertThat(size(vectorStore)).isZero();
+        assertThat(vectorStore.similaritySearch(SearchRequest.query("dentistry"))).isEmpty();
+    }
+
+    @Test
+    void shouldLoadTheEmbeddingsSavedBySimpleVectorStore() throws Exception {
+        S vectorStore = createVectorStore();
+
+        load(vectorStore, new ClassPathResource("vectorstore.json"));
+
+        assertThat(size(vectorStore)).isEqualTo(6);
+    }
+}
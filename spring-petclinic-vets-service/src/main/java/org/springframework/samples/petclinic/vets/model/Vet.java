@@ -18,10 +18,12 @@ package org.springframework.samples.petclinic.vets.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.xml.bind.annotation.XmlElement;
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
+import org.hibernate.annotations.BatchSize;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Simple JavaBean domain object representing a veterinarian.
@@ -37,6 +39,9 @@ import java.util.*;
 @Table(name = "vets")
 public class Vet {
 
+    private static final Comparator<Specialty> BY_NAME =
+        Comparator.comparing(Specialty::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -49,23 +54,24 @@ public class Vet {
     @NotBlank
     private String lastName;
 
+    // Loaded for a whole page of vets at once rather than vet by vet
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
         inverseJoinColumns = @JoinColumn(name = "specialty_id"))
-    private Set<Specialty> specialties;
+    @OrderBy("name")
+    @BatchSize(size = 100)
+    private List<Specialty> specialties;
 
-    protected Set<Specialty> getSpecialtiesInternal() {
+    protected List<Specialty> getSpecialtiesInternal() {
         if (this.specialties == null) {
-            this.specialties = new HashSet<>();
+            this.specialties = new ArrayList<>();
         }
         return this.specialties;
     }
 
     @XmlElement
     public List<Specialty> getSpecialties() {
-        List<Specialty> sortedSpecs = new ArrayList<>(getSpecialtiesInternal());
-        PropertyComparator.sort(sortedSpecs, new MutableSortDefinition("name", true, true));
-        return Collections.unmodifiableList(sortedSpecs);
+        return Collections.unmodifiableList(getSpecialtiesInternal());
     }
 
     public int getNrOfSpecialties() {
@@ -73,7 +79,9 @@ public class Vet {
     }
 
     public void addSpecialty(Specialty specialty) {
-        getSpecialtiesInternal().add(specialty);
+        List<Specialty> specialties = getSpecialtiesInternal();
+        specialties.add(specialty);
+        specialties.sort(BY_NAME);
     }
 
     public Integer getId() {
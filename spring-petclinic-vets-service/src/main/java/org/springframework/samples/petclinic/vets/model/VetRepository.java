@@ -15,6 +15,11 @@
  */
 package org.springframework.samples.petclinic.vets.model;
 
+import java.util.List;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 /**
@@ -28,4 +33,28 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author Maciej Szarlinski
  */
 public interface VetRepository extends JpaRepository<Vet, Integer> {
+
+    /**
+     * All the vets ordered by id, from the <code>vets</code> cache when caching is enabled. The same list instance
+     * is returned until the cache reloads it.
+     */
+    @Override
+    @Cacheable("vets")
+    default List<Vet> findAll() {
+        return findAllByOrderById();
+    }
+
+    /**
+     * All the vets ordered by id, bypassing the <code>vets</code> cache: this is what the cache loads.
+     */
+    List<Vet> findAllByOrderById();
+
+    Slice<Vet> findAllBy(Pageable pageable);
+
+    /**
+     * Vets having the named specialty, found through the (specialty_id, vet_id) index of vet_specialties.
+     */
+    Slice<Vet> findBySpecialtiesName(String specialty, Pageable pageable);
+
+    long countBySpecialtiesName(String specialty);
 }
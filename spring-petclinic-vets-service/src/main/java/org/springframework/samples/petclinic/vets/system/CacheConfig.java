@@ -15,16 +15,65 @@
  */
 package org.springframework.samples.petclinic.vets.system;
 
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.vets.model.VetRepository;
 
 /**
  * Cache could be disable in unit test.
+ * <p>
+ * The <code>vets</code> cache holds at most <code>vets.cache.heap-size</code> entries. Once an entry is older than
+ * <code>vets.cache.ttl</code> seconds, the next read returns it and reloads it in the background, so requests never
+ * wait for the database. Hit and miss statistics are published by the cache metrics of Spring Boot Actuator.
+ *
  * @author Maciej Szarlinski
  */
 @Configuration
 @EnableCaching
 @Profile("production")
 class CacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    static final String VETS = "vets";
+
+    @Bean
+    CaffeineCacheManager cacheManager(VetsProperties properties, VetRepository vetRepository) {
+        VetsProperties.Cache cache = properties.cache();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // The vets list is the only value of the cache: @Cacheable keys a method without parameters with SimpleKey.EMPTY.
+        // The loader reads the vets with findAllByOrderById(), which is not cached: going through the cached findAll()
+        // would make the cache load itself recursively. Both return the vets in the same order, hence the same ETag.
+        cacheManager.registerCustomCache(VETS, Caffeine.newBuilder()
+            .maximumSize(cache.heapSize())
+            .refreshAfterWrite(Duration.ofSeconds(cache.ttl()))
+            .recordStats()
+            .build(key -> vetRepository.findAllByOrderById()));
+        return cacheManager;
+    }
+
+    /**
+     * Loads the vets at startup so that the first request does not wait either. The service still starts when the
+     * database is not reachable yet: a failed load is not cached, so the first request loads the vets again.
+     */
+    @Bean
+    ApplicationRunner vetsCacheWarmUp(CaffeineCacheManager cacheManager) {
+        return args -> {
+            try {
+                cacheManager.getCache(VETS).get(SimpleKey.EMPTY);
+            } catch (RuntimeException e) {
+                log.warn("Could not warm up the vets cache, the vets will be loaded by the first request", e);
+            }
+        };
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vets.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.samples.petclinic.vets.model.Vet;
+import org.springframework.util.DigestUtils;
+
+/**
+ * JSON representation of a list of vets, serialized once, with its gzip variant and their strong ETags.
+ *
+ * @param vets the serialized list, to know whether a list returned by the cache is still this one
+ */
+record SerializedVets(
+    List<Vet> vets,
+    byte[] json,
+    String etag,
+    byte[] gzip,
+    String gzipEtag
+) {
+
+    static SerializedVets of(List<Vet> vets, ObjectWriter writer) {
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(vets);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the vets", e);
+        }
+        String hash = DigestUtils.md5DigestAsHex(json);
+        // A strong ETag identifies one representation: each content encoding gets its own
+        return new SerializedVets(vets, json, "\"" + hash + "\"", gzip(json), "\"" + hash + "-gzip\"");
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
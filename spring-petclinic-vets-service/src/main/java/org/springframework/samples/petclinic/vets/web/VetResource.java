@@ -16,12 +16,25 @@
 package org.springframework.samples.petclinic.vets.web;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
-import org.springframework.cache.annotation.Cacheable;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.vets.model.Vet;
 import org.springframework.samples.petclinic.vets.model.VetRepository;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -35,15 +48,84 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 class VetResource {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final VetRepository vetRepository;
+    private final ObjectWriter vetsWriter;
+
+    // Serialized form of the list last returned by the vets cache
+    private final AtomicReference<SerializedVets> serializedVets = new AtomicReference<>();
 
-    VetResource(VetRepository vetRepository) {
+    VetResource(VetRepository vetRepository, ObjectMapper objectMapper) {
         this.vetRepository = vetRepository;
+        this.vetsWriter = objectMapper.writerFor(new TypeReference<List<Vet>>() {
+        });
+    }
+
+    /**
+     * The vets as JSON, serialized once per cached list. The response carries an ETag, so that Spring MVC answers
+     * a matching <code>If-None-Match</code> with 304 Not Modified, and is sent gzipped when the client accepts it.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> showResourcesVetList(
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        SerializedVets vets = serialize(vetRepository.findAll());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(vets.gzipEtag())
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(vets.gzip());
+        }
+        return response.eTag(vets.etag()).body(vets.json());
+    }
+
+    /**
+     * A page of vets, optionally restricted to those having the given specialty. Pages are read straight from the
+     * database, so that clinics with many vets are not served through the list of all vets.
+     */
+    @GetMapping(value = "/search")
+    public VetPage search(@RequestParam(value = "specialty", required = false) String specialty,
+                          @RequestParam(value = "page", defaultValue = "0") int page,
+                          @RequestParam(value = "size", defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+            Sort.by("lastName", "id"));
+        Slice<Vet> vets = specialty == null || specialty.isBlank()
+            ? vetRepository.findAllBy(pageable)
+            : vetRepository.findBySpecialtiesName(specialty, pageable);
+        return new VetPage(vets.getContent(), vets.getNumber(), vets.getSize(),
+            vets.hasNext() ? vets.getNumber() + 1 : null);
+    }
+
+    @GetMapping(value = "/count")
+    public long count(@RequestParam(value = "specialty", required = false) String specialty) {
+        return specialty == null || specialty.isBlank()
+            ? vetRepository.count()
+            : vetRepository.countBySpecialtiesName(specialty);
+    }
+
+    private SerializedVets serialize(List<Vet> vets) {
+        SerializedVets serialized = serializedVets.get();
+        if (serialized == null || serialized.vets() != vets) {
+            serialized = SerializedVets.of(vets, vetsWriter);
+            serializedVets.set(serialized);
+        }
+        return serialized;
     }
 
-    @GetMapping
-    @Cacheable("vets")
-    public List<Vet> showResourcesVetList() {
-        return vetRepository.findAll();
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
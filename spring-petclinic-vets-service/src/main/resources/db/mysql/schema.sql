@@ -20,5 +20,20 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
   specialty_id INT(4) UNSIGNED NOT NULL,
   FOREIGN KEY (vet_id) REFERENCES vets(id),
   FOREIGN KEY (specialty_id) REFERENCES specialties(id),
-  UNIQUE (vet_id,specialty_id)
+  UNIQUE (vet_id,specialty_id),
+  INDEX vet_specialties_specialty_id_vet_id (specialty_id,vet_id)
 ) engine=InnoDB;
+
+-- Upgrade of a vet_specialties table created before the vets were read by specialty from an index
+SET @add_vet_specialties_specialty_id_vet_id = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX vet_specialties_specialty_id_vet_id ON vet_specialties (specialty_id, vet_id)', 'DO 0')
+  FROM information_schema.statistics first_column
+  JOIN information_schema.statistics second_column
+    ON second_column.table_schema = first_column.table_schema AND second_column.table_name = first_column.table_name
+    AND second_column.index_name = first_column.index_name
+  WHERE first_column.table_schema = DATABASE() AND first_column.table_name = 'vet_specialties'
+    AND first_column.column_name = 'specialty_id' AND first_column.seq_in_index = 1
+    AND second_column.column_name = 'vet_id' AND second_column.seq_in_index = 2);
+PREPARE add_vet_specialties_specialty_id_vet_id FROM @add_vet_specialties_specialty_id_vet_id;
+EXECUTE add_vet_specialties_specialty_id_vet_id;
+DEALLOCATE PREPARE add_vet_specialties_specialty_id_vet_id;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vets.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.samples.petclinic.vets.model.Vet;
+import org.springframework.samples.petclinic.vets.model.VetRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The <code>vets</code> cache as it is wired in production.
+ */
+class CacheConfigTest {
+
+    private final VetRepository vetRepository = mock(VetRepository.class);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withPropertyValues("spring.profiles.active=production")
+        .withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+            CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+            CacheMetricsAutoConfiguration.class))
+        .withUserConfiguration(CacheConfig.class)
+        .withBean(VetsProperties.class, () -> new VetsProperties(new VetsProperties.Cache(60, 100)))
+        .withBean(VetRepository.class, () -> vetRepository);
+
+    @Test
+    void vetsAreLoadedInIdOrderAndRefreshedInTheBackground() {
+        List<Vet> vets = List.of(vet(1), vet(2));
+        given(vetRepository.findAllByOrderById()).willReturn(vets);
+
+        contextRunner.run(context -> {
+            CaffeineCache cache = (CaffeineCache) context.getBean(CaffeineCacheManager.class).getCache(CacheConfig.VETS);
+            assertThat(cache.getNativeCache()).isInstanceOf(LoadingCache.class);
+            assertThat(cache.getNativeCache().policy().refreshAfterWrite()).hasValueSatisfying(
+                refresh -> assertThat(refresh.getRefreshesAfter()).isEqualTo(Duration.ofSeconds(60)));
+
+            VetRepository cachedRepository = context.getBean(VetRepository.class);
+            assertThat(cachedRepository.findAll()).isSameAs(vets);
+            assertThat(cachedRepository.findAll()).isSameAs(vets);
+            verify(vetRepository, times(1)).findAllByOrderById();
+        });
+    }
+
+    @Test
+    void failedWarmUpIsNotCached() {
+        List<Vet> vets = List.of(vet(1));
+        given(vetRepository.findAllByOrderById())
+            .willThrow(new IllegalStateException("database not reachable"))
+            .willReturn(vets);
+
+        contextRunner.run(context -> {
+            assertThatNoException().isThrownBy(() -> context.getBean(ApplicationRunner.class).run(null));
+
+            assertThat(context.getBean(VetRepository.class).findAll()).isSameAs(vets);
+            verify(vetRepository, times(2)).findAllByOrderById();
+        });
+    }
+
+    @Test
+    void cacheMetricsArePublished() {
+        given(vetRepository.findAllByOrderById()).willReturn(List.of(vet(1)));
+
+        contextRunner.run(context -> {
+            VetRepository cachedRepository = context.getBean(VetRepository.class);
+            cachedRepository.findAll();
+            cachedRepository.findAll();
+
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            assertThat(meterRegistry.get("cache.gets").tag("cache", CacheConfig.VETS).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("cache.gets").tag("cache", CacheConfig.VETS).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("cache.size").tag("cache", CacheConfig.VETS).gauge().value()).isEqualTo(1);
+        });
+    }
+
+    private Vet vet(int id) {
+        Vet vet = new Vet();
+        vet.setId(id);
+        return vet;
+    }
+}
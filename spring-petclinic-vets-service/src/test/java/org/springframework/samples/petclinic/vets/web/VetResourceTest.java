@@ -20,16 +20,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.vets.model.Vet;
 import org.springframework.samples.petclinic.vets.model.VetRepository;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static java.util.Arrays.asList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -59,4 +67,79 @@ class VetResourceTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].id").value(1));
     }
+
+    @Test
+    void shouldAnswerNotModifiedWhenTheVetsDidNotChange() throws Exception {
+        Vet vet = new Vet();
+        vet.setId(1);
+
+        given(vetRepository.findAll()).willReturn(asList(vet));
+
+        MvcResult result = mvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldSendGzippedVetsWhenAccepted() throws Exception {
+        Vet vet = new Vet();
+        vet.setId(1);
+
+        given(vetRepository.findAll()).willReturn(asList(vet));
+
+        mvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void shouldHonourRefusedGzip() {
+        assertThat(VetResource.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        assertThat(VetResource.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(VetResource.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void shouldSearchVetsBySpecialty() throws Exception {
+        Vet vet = new Vet();
+        vet.setId(2);
+
+        given(vetRepository.findBySpecialtiesName("radiology", PageRequest.of(0, 1, Sort.by("lastName", "id"))))
+            .willReturn(new SliceImpl<>(asList(vet), PageRequest.of(0, 1), true));
+
+        mvc.perform(get("/vets/search?specialty=radiology&size=1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.vets[0].id").value(2))
+            .andExpect(jsonPath("$.page").value(0))
+            .andExpect(jsonPath("$.nextPage").value(1));
+    }
+
+    @Test
+    void shouldCapThePageSize() throws Exception {
+        given(vetRepository.findAllBy(any())).willReturn(new SliceImpl<>(asList(), PageRequest.of(3, 100), false));
+
+        mvc.perform(get("/vets/search?page=3&size=1000").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.size").value(100))
+            .andExpect(jsonPath("$.nextPage").doesNotExist());
+    }
+
+    @Test
+    void shouldCountVetsBySpecialty() throws Exception {
+        given(vetRepository.countBySpecialtiesName("surgery")).willReturn(1L);
+        given(vetRepository.count()).willReturn(6L);
+
+        mvc.perform(get("/vets/count?specialty=surgery").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(1));
+        mvc.perform(get("/vets/count").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(6));
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of {@link VisitRepository}, used by the <code>reactive</code> profile.
+ * <p>
+ * {@link Visit} is mapped for JPA, so rows are read and written with plain SQL through the {@link DatabaseClient}
+ * rather than with a Spring Data R2DBC mapping of the same class.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveVisitRepository {
+
+    private static final String SELECT_VISITS = "SELECT id, visit_date, description, pet_id, owner_id FROM visits";
+
+    // Allocation size of the visits_seq generator of Visit
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String MYSQL = "MySQL";
+
+    private final DatabaseClient databaseClient;
+
+    // Ids of the current block not handed out yet, from nextId to lastId
+    private int nextId;
+
+    private int lastId = -1;
+
+    public ReactiveVisitRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Visit> findByPetIdOrderByDateDesc(int petId) {
+        return databaseClient.sql(SELECT_VISITS + " WHERE pet_id = :petId ORDER BY visit_date DESC")
+            .bind("petId", petId)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    public Flux<Visit> findByPetIdInOrderByPetIdAscDateDesc(Collection<Integer> petIds) {
+        if (petIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(SELECT_VISITS + " WHERE pet_id IN (:petIds) ORDER BY pet_id, visit_date DESC")
+            .bind("petIds", petIds)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    public Flux<Visit> findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(Collection<Integer> petIds, Date from, Date to) {
+        if (petIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(SELECT_VISITS
+                + " WHERE pet_id IN (:petIds) AND visit_date BETWEEN :from AND :to ORDER BY pet_id, visit_date DESC")
+            .bind("petIds", petIds)
+            .bind("from", toLocalDate(from))
+            .bind("to", toLocalDate(to))
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    public Flux<Visit> findByOwnerIdOrderByPetIdAscDateDesc(int ownerId) {
+        return databaseClient.sql(SELECT_VISITS + " WHERE owner_id = :ownerId ORDER BY pet_id, visit_date DESC")
+            .bind("ownerId", ownerId)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    /**
+     * Latest visits of each pet, grouped by pet and most recent first. H2 has no LATERAL join, unlike the
+     * {@link VisitRepository#findLatestByPetIdIn(Collection, int) JPA query}: the visits of each pet are ranked
+     * with ROW_NUMBER, supported by H2 and MySQL 8, in the order of the (pet_id, visit_date DESC) index.
+     */
+    public Flux<Visit> findLatestByPetIdIn(Collection<Integer> petIds, int limitPerPet) {
+        if (petIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(latestVisits("pet_id IN (:petIds)"))
+            .bind("petIds", petIds)
+            .bind("limitPerPet", limitPerPet)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    public Flux<Visit> findLatestByOwnerId(int ownerId, int limitPerPet) {
+        return databaseClient.sql(latestVisits("owner_id = :ownerId"))
+            .bind("ownerId", ownerId)
+            .bind("limitPerPet", limitPerPet)
+            .map(ReactiveVisitRepository::toVisit)
+            .all();
+    }
+
+    private static String latestVisits(String condition) {
+        return "SELECT id, visit_date, description, pet_id, owner_id FROM (SELECT visit.*, ROW_NUMBER() OVER "
+            + "(PARTITION BY pet_id ORDER BY visit_date DESC, id DESC) AS pet_rank FROM visits visit WHERE " + condition
+            + ") latest WHERE pet_rank <= :limitPerPet ORDER BY pet_id, visit_date DESC, id DESC";
+    }
+
+    public Mono<Visit> save(Visit visit) {
+        return nextId().flatMap(id -> {
+            GenericExecuteSpec insert = databaseClient.sql(
+                    "INSERT INTO visits (id, visit_date, description, pet_id, owner_id) VALUES (:id, :date, :description, :petId, :ownerId)")
+                .bind("id", id)
+                .bind("petId", visit.getPetId());
+            insert = bindNullable(insert, "date", visit.getDate() != null ? toLocalDate(visit.getDate()) : null, LocalDate.class);
+            insert = bindNullable(insert, "description", visit.getDescription(), String.class);
+            insert = bindNullable(insert, "ownerId", visit.getOwnerId(), Integer.class);
+            return insert.then().thenReturn(id);
+        }).map(id -> {
+            visit.setId(id);
+            return visit;
+        });
+    }
+
+    /**
+     * Takes the ids from the blocks of <code>visits_seq</code> the way the pooled optimizer of Hibernate does for
+     * {@link Visit}, so that the servlet and reactive stacks can insert into the same visits table: a block whose
+     * upper bound is V holds the ids V - 49 to V.
+     */
+    private Mono<Integer> nextId() {
+        synchronized (this) {
+            if (nextId <= lastId) {
+                return Mono.just(nextId++);
+            }
+        }
+        return reserveIds().map(hi -> {
+            synchronized (this) {
+                // A block reserved concurrently may already be in use: the rest of this one is then left unused
+                if (nextId > lastId) {
+                    nextId = hi - ID_ALLOCATION_SIZE + 2;
+                    lastId = hi;
+                }
+            }
+            return hi - ID_ALLOCATION_SIZE + 1;
+        });
+    }
+
+    /**
+     * Reserves the next block of ids and returns its upper bound.
+     */
+    private Mono<Integer> reserveIds() {
+        if (!MYSQL.equals(databaseClient.getConnectionFactory().getMetadata().getName())) {
+            return databaseClient.sql("SELECT NEXT VALUE FOR visits_seq")
+                .map(row -> row.get(0, Long.class).intValue())
+                .one();
+        }
+        // MySQL has no sequences: visits_seq is a table holding the next upper bound, moved atomically.
+        // LAST_INSERT_ID(expr) keeps the moved value for the connection, which then reads it back.
+        return databaseClient.inConnection(connection ->
+            Mono.from(connection.createStatement(
+                    "UPDATE visits_seq SET next_val = LAST_INSERT_ID(next_val + " + ID_ALLOCATION_SIZE + ")").execute())
+                .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                .then(Mono.from(connection.createStatement(
+                        "SELECT CAST(LAST_INSERT_ID() - " + ID_ALLOCATION_SIZE + " AS SIGNED)").execute())
+                    .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class).intValue())))));
+    }
+
+    private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+
+    private static Visit toVisit(Readable row) {
+        LocalDate date = row.get("visit_date", LocalDate.class);
+        return Visit.VisitBuilder.aVisit()
+            .id(row.get("id", Integer.class))
+            .date(date != null ? java.sql.Date.valueOf(date) : null)
+            .description(row.get("description", String.class))
+            .petId(row.get("pet_id", Integer.class))
+            .ownerId(row.get("owner_id", Integer.class))
+            .build();
+    }
+}
@@ -32,8 +32,10 @@ import java.util.Date;
 @Table(name = "visits")
 public class Visit {
 
+    // Ids are allocated 50 at a time from the sequence (a table on MySQL), so that inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visits_seq")
+    @SequenceGenerator(name = "visits_seq", sequenceName = "visits_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "visit_date")
@@ -48,6 +50,9 @@ public class Visit {
     @Column(name = "pet_id")
     private int petId;
 
+    @Column(name = "owner_id")
+    private Integer ownerId;
+
     public Integer getId() {
         return this.id;
     }
@@ -64,6 +69,10 @@ public class Visit {
         return this.petId;
     }
 
+    public Integer getOwnerId() {
+        return this.ownerId;
+    }
+
     public void setId(Integer id) {
         this.id = id;
     }
@@ -80,12 +89,16 @@ public class Visit {
         this.petId = petId;
     }
 
+    public void setOwnerId(Integer ownerId) {
+        this.ownerId = ownerId;
+    }
 
     public static final class VisitBuilder {
         private Integer id;
         private Date date;
         private @Size(max = 8192) String description;
         private int petId;
+        private Integer ownerId;
 
         private VisitBuilder() {
         }
@@ -114,12 +127,18 @@ public class Visit {
             return this;
         }
 
+        public VisitBuilder ownerId(Integer ownerId) {
+            this.ownerId = ownerId;
+            return this;
+        }
+
         public Visit build() {
             Visit visit = new Visit();
             visit.setId(id);
             visit.setDate(date);
             visit.setDescription(description);
             visit.setPetId(petId);
+            visit.setOwnerId(ownerId);
             return visit;
         }
     }
@@ -16,9 +16,12 @@
 package org.springframework.samples.petclinic.visits.model;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository class for <code>Visit</code> domain objects All method names are compliant with Spring Data naming conventions so this interface can easily be extended for Spring
@@ -32,7 +35,36 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface VisitRepository extends JpaRepository<Visit, Integer> {
 
-    List<Visit> findByPetId(int petId);
+    // Visits of a pet are read most recent first, in the order of the (pet_id, visit_date DESC) index
 
-    List<Visit> findByPetIdIn(Collection<Integer> petIds);
+    List<Visit> findByPetIdOrderByDateDesc(int petId);
+
+    List<Visit> findByPetIdInOrderByPetIdAscDateDesc(Collection<Integer> petIds);
+
+    List<Visit> findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(Collection<Integer> petIds, Date from, Date to);
+
+    List<Visit> findByOwnerIdOrderByPetIdAscDateDesc(int ownerId);
+
+    /**
+     * Latest visits of each pet, grouped by pet and most recent first. The LATERAL subquery reads at most
+     * <code>limitPerPet</code> entries of the (pet_id, visit_date DESC) index for each pet, whatever the length of
+     * its history. LATERAL is supported by HSQLDB and MySQL 8.0.14+.
+     */
+    @Query(value = "SELECT latest.id, latest.visit_date, latest.description, latest.pet_id, latest.owner_id "
+        + "FROM (SELECT DISTINCT pet_id FROM visits WHERE pet_id IN (:petIds)) pet, "
+        + "LATERAL (SELECT * FROM visits visit WHERE visit.pet_id = pet.pet_id "
+        + "ORDER BY visit.visit_date DESC, visit.id DESC LIMIT :limitPerPet) latest "
+        + "ORDER BY latest.pet_id, latest.visit_date DESC, latest.id DESC", nativeQuery = true)
+    List<Visit> findLatestByPetIdIn(@Param("petIds") Collection<Integer> petIds, @Param("limitPerPet") int limitPerPet);
+
+    /**
+     * Latest visits of each pet of an owner, grouped by pet and most recent first, read like
+     * {@link #findLatestByPetIdIn(Collection, int)}.
+     */
+    @Query(value = "SELECT latest.id, latest.visit_date, latest.description, latest.pet_id, latest.owner_id "
+        + "FROM (SELECT DISTINCT pet_id FROM visits WHERE owner_id = :ownerId) pet, "
+        + "LATERAL (SELECT * FROM visits visit WHERE visit.pet_id = pet.pet_id "
+        + "ORDER BY visit.visit_date DESC, visit.id DESC LIMIT :limitPerPet) latest "
+        + "ORDER BY latest.pet_id, latest.visit_date DESC, latest.id DESC", nativeQuery = true)
+    List<Visit> findLatestByOwnerId(@Param("ownerId") int ownerId, @Param("limitPerPet") int limitPerPet);
 }
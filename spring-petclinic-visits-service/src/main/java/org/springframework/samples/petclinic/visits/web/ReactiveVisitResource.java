@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.time.LocalDate;
+import java.util.List;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.ReactiveVisitRepository;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of {@link VisitResource}, active with the <code>reactive</code> profile. It serves the same
+ * API, so clients do not know which stack a deployment runs.
+ */
+@RestController
+@Profile("reactive")
+@Timed("petclinic.visit")
+class ReactiveVisitResource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveVisitResource.class);
+
+    private final ReactiveVisitRepository visitRepository;
+
+    ReactiveVisitResource(ReactiveVisitRepository visitRepository) {
+        this.visitRepository = visitRepository;
+    }
+
+    @PostMapping("owners/{ownerId}/pets/{petId}/visits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Visit> create(
+        @Valid @RequestBody Visit visit,
+        @PathVariable("ownerId") @Min(1) int ownerId,
+        @PathVariable("petId") @Min(1) int petId) {
+
+        visit.setPetId(petId);
+        visit.setOwnerId(ownerId);
+        log.info("Saving visit {}", visit);
+        return visitRepository.save(visit);
+    }
+
+    @GetMapping("owners/*/pets/{petId}/visits")
+    public Flux<Visit> read(@PathVariable("petId") @Min(1) int petId) {
+        return visitRepository.findByPetIdOrderByDateDesc(petId);
+    }
+
+    @GetMapping("pets/visits")
+    public Mono<Visits> read(
+        @RequestParam("petId") List<Integer> petIds,
+        @RequestParam(name = "latest", required = false) Integer latest,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return stream(petIds, latest, from, to).collectList().map(Visits::new);
+    }
+
+    /**
+     * Streams the visits one per line as they are read from the database, without the {@link Visits} envelope.
+     */
+    @GetMapping(value = "pets/visits", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Visit> stream(
+        @RequestParam("petId") List<Integer> petIds,
+        @RequestParam(name = "latest", required = false) Integer latest,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        VisitsQuery query = VisitsQuery.of(latest, from, to);
+        if (query.latest() != null) {
+            return visitRepository.findLatestByPetIdIn(petIds, query.latest());
+        }
+        if (query.from() != null) {
+            return visitRepository.findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(petIds, query.from(), query.to());
+        }
+        return visitRepository.findByPetIdInOrderByPetIdAscDateDesc(petIds);
+    }
+
+    @PostMapping("pets/visits")
+    public Mono<Visits> readForPets(
+        @RequestBody List<Integer> petIds,
+        @RequestParam(name = "latest", required = false) Integer latest,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return stream(petIds, latest, from, to).collectList().map(Visits::new);
+    }
+
+    @GetMapping("owners/{ownerId}/visits")
+    public Mono<Visits> readForOwner(
+        @PathVariable("ownerId") @Min(1) int ownerId,
+        @RequestParam(name = "latest", required = false) Integer latest) {
+
+        VisitsQuery query = VisitsQuery.of(latest, null, null);
+        Flux<Visit> visits = query.latest() != null
+            ? visitRepository.findLatestByOwnerId(ownerId, query.latest())
+            : visitRepository.findByOwnerIdOrderByPetIdAscDateDesc(ownerId);
+        return visits.collectList().map(Visits::new);
+    }
+}
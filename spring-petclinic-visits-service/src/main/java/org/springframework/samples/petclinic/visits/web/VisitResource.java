@@ -15,16 +15,32 @@
  */
 package org.springframework.samples.petclinic.visits.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.visits.model.Visit;
 import org.springframework.samples.petclinic.visits.model.VisitRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -42,41 +58,208 @@ import org.springframework.web.bind.annotation.RestController;
  * @author Ramazan Sakin
  */
 @RestController
+@Profile("!reactive")
 @Timed("petclinic.visit")
 class VisitResource {
 
     private static final Logger log = LoggerFactory.getLogger(VisitResource.class);
 
+    // Same as hibernate.jdbc.batch_size and the allocation size of the visit ids
+    private static final int IMPORT_BATCH_SIZE = 50;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 8192;
+
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
     private final VisitRepository visitRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final ObjectReader visitReader;
 
-    VisitResource(VisitRepository visitRepository) {
+    VisitResource(VisitRepository visitRepository, EntityManager entityManager,
+                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
         this.visitRepository = visitRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.visitReader = objectMapper.readerFor(Visit.class);
     }
 
-    @PostMapping("owners/*/pets/{petId}/visits")
+    @PostMapping("owners/{ownerId}/pets/{petId}/visits")
     @ResponseStatus(HttpStatus.CREATED)
     public Visit create(
         @Valid @RequestBody Visit visit,
+        @PathVariable("ownerId") @Min(1) int ownerId,
         @PathVariable("petId") @Min(1) int petId) {
 
         visit.setPetId(petId);
+        // Denormalized so that the visits of an owner can be read without knowing its pet ids
+        visit.setOwnerId(ownerId);
         log.info("Saving visit {}", visit);
         return visitRepository.save(visit);
     }
 
+    /**
+     * Creates visits sent in bulk, as a JSON array or as newline delimited JSON, e.g. by clinics synchronizing
+     * offline devices. Each visit carries its <code>petId</code> and <code>ownerId</code>. Visits are parsed one at a
+     * time and inserted in JDBC batches, one transaction per batch. A visit that is invalid, cannot be mapped, or
+     * whose batch fails, is reported without stopping the import; only malformed JSON ends it. The response counts
+     * the visits and details at most {@value #MAX_REPORTED_FAILURES} failures, so the memory used does not depend on
+     * the size of the upload.
+     */
+    @PostMapping(value = "visits", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public VisitsImport importVisits(InputStream body) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        List<Visit> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Integer> batchIndexes = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int index = 0;
+        try (MappingIterator<Visit> visits = visitReader.readValues(body)) {
+            while (visits.hasNextValue()) {
+                Visit visit;
+                try {
+                    visit = visits.nextValue();
+                } catch (JsonMappingException e) {
+                    // Well-formed but not a visit, e.g. a text petId: the iterator skips to the next value
+                    progress.failed(index++, "Invalid visit: " + e.getOriginalMessage());
+                    continue;
+                }
+                String error = validate(visit);
+                if (error != null) {
+                    progress.failed(index, error);
+                } else {
+                    visit.setId(null);
+                    batch.add(visit);
+                    batchIndexes.add(index);
+                    if (batch.size() == IMPORT_BATCH_SIZE) {
+                        writeBatch(batch, batchIndexes, progress);
+                    }
+                }
+                index++;
+            }
+        } catch (JsonProcessingException e) {
+            // Malformed JSON: the remaining input cannot be split into visits reliably
+            progress.failed(index, "Unreadable visit: " + e.getOriginalMessage());
+        }
+        writeBatch(batch, batchIndexes, progress);
+
+        log.info("Imported {} visits, {} failed", progress.created, progress.failed);
+        return progress.toImport();
+    }
+
+    private void writeBatch(List<Visit> batch, List<Integer> batchIndexes, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transaction.executeWithoutResult(status -> {
+                visitRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            progress.created += batch.size();
+        } catch (RuntimeException e) {
+            // Only this batch is rolled back, the import goes on with the next one.
+            // The database error stays in the log: it may describe the schema.
+            log.warn("Failed to import a batch of {} visits", batch.size(), e);
+            for (Integer batchIndex : batchIndexes) {
+                progress.failed(batchIndex, "Not saved: the batch of this visit could not be written");
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    /**
+     * Counts of a running import, and its first failures.
+     */
+    private static final class ImportProgress {
+
+        private int created;
+        private int failed;
+        private final List<VisitsImport.Failure> failures = new ArrayList<>();
+
+        void failed(int index, String error) {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new VisitsImport.Failure(index, error));
+            }
+        }
+
+        VisitsImport toImport() {
+            // Failed batches are reported after the invalid visits read meanwhile
+            failures.sort(Comparator.comparingInt(VisitsImport.Failure::index));
+            return new VisitsImport(created, failed, failures);
+        }
+    }
+
+    private static String validate(Visit visit) {
+        if (visit.getPetId() < 1) {
+            return "petId must be at least 1";
+        }
+        if (visit.getOwnerId() == null || visit.getOwnerId() < 1) {
+            return "ownerId must be at least 1";
+        }
+        if (visit.getDescription() != null && visit.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+
     @GetMapping("owners/*/pets/{petId}/visits")
     public List<Visit> read(@PathVariable("petId") @Min(1) int petId) {
-        return visitRepository.findByPetId(petId);
+        return visitRepository.findByPetIdOrderByDateDesc(petId);
     }
 
+    /**
+     * Visits of the given pets, grouped by pet and most recent first. Either only the <code>latest</code> visits of
+     * each pet, or the visits <code>from</code> a date <code>to</code> another (both included) may be requested.
+     */
     @GetMapping("pets/visits")
-    public Visits read(@RequestParam("petId") List<Integer> petIds) {
-        final List<Visit> byPetIdIn = visitRepository.findByPetIdIn(petIds);
-        return new Visits(byPetIdIn);
+    public Visits read(
+        @RequestParam("petId") List<Integer> petIds,
+        @RequestParam(name = "latest", required = false) Integer latest,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return find(petIds, VisitsQuery.of(latest, from, to));
+    }
+
+    /**
+     * Same as {@link #read(List, Integer, LocalDate, LocalDate)} for sets of pet ids that do not fit in a URL.
+     */
+    @PostMapping("pets/visits")
+    public Visits readForPets(
+        @RequestBody List<Integer> petIds,
+        @RequestParam(name = "latest", required = false) Integer latest,
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return find(petIds, VisitsQuery.of(latest, from, to));
+    }
+
+    /**
+     * Visits of the pets of an owner, grouped by pet and most recent first, optionally only the <code>latest</code>
+     * visits of each pet.
+     */
+    @GetMapping("owners/{ownerId}/visits")
+    public Visits readForOwner(
+        @PathVariable("ownerId") @Min(1) int ownerId,
+        @RequestParam(name = "latest", required = false) Integer latest) {
+
+        VisitsQuery query = VisitsQuery.of(latest, null, null);
+        if (query.latest() != null) {
+            return new Visits(visitRepository.findLatestByOwnerId(ownerId, query.latest()));
+        }
+        return new Visits(visitRepository.findByOwnerIdOrderByPetIdAscDateDesc(ownerId));
     }
 
-    record Visits(
-        List<Visit> items
-    ) {
+    private Visits find(List<Integer> petIds, VisitsQuery query) {
+        if (query.latest() != null) {
+            return new Visits(visitRepository.findLatestByPetIdIn(petIds, query.latest()));
+        }
+        if (query.from() != null) {
+            return new Visits(visitRepository.findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(
+                petIds, query.from(), query.to()));
+        }
+        return new Visits(visitRepository.findByPetIdInOrderByPetIdAscDateDesc(petIds));
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk visits import: the number of visits created and failed, and the first failures in the order the
+ * visits were sent.
+ */
+record VisitsImport(
+    int created,
+    int failed,
+    List<Failure> failures
+) {
+
+    /**
+     * A visit that was not created: its position in the upload and the reason.
+     */
+    record Failure(
+        int index,
+        String error
+    ) {
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.visits.web;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Optional restriction of the visits read for a set of pets: the latest visits of each pet, or a date range.
+ */
+record VisitsQuery(
+    Integer latest,
+    Date from,
+    Date to
+) {
+
+    static VisitsQuery of(Integer latest, LocalDate from, LocalDate to) {
+        if (latest != null && latest < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "latest must be at least 1");
+        }
+        if ((from == null) != (to == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from and to must be given together");
+        }
+        if (latest != null && from != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "latest cannot be combined with a date range");
+        }
+        return new VisitsQuery(
+            latest,
+            from != null ? java.sql.Date.valueOf(from) : null,
+            to != null ? java.sql.Date.valueOf(to) : null);
+    }
+}
@@ -1,4 +1,4 @@
-INSERT INTO visits VALUES (1, 7, '2013-01-01', 'rabies shot');
-INSERT INTO visits VALUES (2, 8, '2013-01-02', 'rabies shot');
-INSERT INTO visits VALUES (3, 8, '2013-01-03', 'neutered');
-INSERT INTO visits VALUES (4, 7, '2013-01-04', 'spayed');
+INSERT INTO visits VALUES (1, 7, '2013-01-01', 'rabies shot', 6);
+INSERT INTO visits VALUES (2, 8, '2013-01-02', 'rabies shot', 6);
+INSERT INTO visits VALUES (3, 8, '2013-01-03', 'neutered', 6);
+INSERT INTO visits VALUES (4, 7, '2013-01-04', 'spayed', 6);
@@ -1,10 +1,16 @@
-DROP TABLE visits IF EXISTS;
+DROP TABLE IF EXISTS visits;
+DROP SEQUENCE IF EXISTS visits_seq;
 
 CREATE TABLE visits (
-  id          INTEGER IDENTITY PRIMARY KEY,
+  id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   pet_id      INTEGER NOT NULL,
   visit_date  DATE,
-  description VARCHAR(8192)
+  description VARCHAR(8192),
+  owner_id    INTEGER
 );
 
-CREATE INDEX visits_pet_id ON visits (pet_id);
+CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date DESC);
+CREATE INDEX visits_owner_id ON visits (owner_id);
+
+-- Pooled id allocation of the Visit entity: the increment is its allocation size
+CREATE SEQUENCE visits_seq START WITH 100 INCREMENT BY 50;
@@ -1,4 +1,9 @@
-INSERT IGNORE INTO visits VALUES (1, 7, '2010-03-04', 'rabies shot');
-INSERT IGNORE INTO visits VALUES (2, 8, '2011-03-04', 'rabies shot');
-INSERT IGNORE INTO visits VALUES (3, 8, '2009-06-04', 'neutered');
-INSERT IGNORE INTO visits VALUES (4, 7, '2008-09-04', 'spayed');
+INSERT IGNORE INTO visits VALUES (1, 7, '2010-03-04', 'rabies shot', 6);
+INSERT IGNORE INTO visits VALUES (2, 8, '2011-03-04', 'rabies shot', 6);
+INSERT IGNORE INTO visits VALUES (3, 8, '2009-06-04', 'neutered', 6);
+INSERT IGNORE INTO visits VALUES (4, 7, '2008-09-04', 'spayed', 6);
+-- The ids allocated next are the 50 (allocation size of Visit) below next_val: it starts above the existing visits,
+-- and is moved above them when they were inserted by an AUTO_INCREMENT or by a sequence seeded too low
+INSERT INTO visits_seq SELECT COALESCE(MAX(id), 0) + 50 FROM visits WHERE NOT EXISTS (SELECT * FROM visits_seq);
+UPDATE visits_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM visits)
+  WHERE next_val < (SELECT COALESCE(MAX(id), 0) + 50 FROM visits);
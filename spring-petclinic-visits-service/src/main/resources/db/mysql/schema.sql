@@ -7,5 +7,35 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED NOT NULL,
   visit_date DATE,
   description VARCHAR(8192),
+  owner_id INT(4) UNSIGNED,
+  INDEX(owner_id),
+  INDEX visits_pet_id_visit_date (pet_id, visit_date DESC),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+
+-- Upgrade of a visits table created before the visits referenced their owner.
+-- MySQL has no ADD COLUMN IF NOT EXISTS: the statement is chosen from the information schema.
+SET @add_visits_owner_id = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE visits ADD COLUMN owner_id INT(4) UNSIGNED, ADD INDEX(owner_id)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'visits' AND column_name = 'owner_id');
+PREPARE add_visits_owner_id FROM @add_visits_owner_id;
+EXECUTE add_visits_owner_id;
+DEALLOCATE PREPARE add_visits_owner_id;
+
+-- Upgrade of a visits table created before the visits of a pet were read most recent first from an index
+SET @add_visits_pet_id_visit_date = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date DESC)', 'DO 0')
+  FROM information_schema.statistics
+  WHERE table_schema = DATABASE() AND table_name = 'visits' AND index_name = 'visits_pet_id_visit_date');
+PREPARE add_visits_pet_id_visit_date FROM @add_visits_pet_id_visit_date;
+EXECUTE add_visits_pet_id_visit_date;
+DEALLOCATE PREPARE add_visits_pet_id_visit_date;
+
+-- Visits without owner are not read by owner: their owner is the one of their pet
+UPDATE visits JOIN pets ON pets.id = visits.pet_id SET visits.owner_id = pets.owner_id WHERE visits.owner_id IS NULL;
+
+-- MySQL has no sequences: Hibernate emulates the visits_seq sequence with this table
+CREATE TABLE IF NOT EXISTS visits_seq (
+  next_val BIGINT
+) engine=InnoDB;
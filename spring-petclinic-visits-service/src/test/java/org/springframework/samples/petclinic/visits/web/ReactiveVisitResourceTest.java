@@ -0,0 +1,108 @@
+package org.springframework.samples.petclinic.visits.web;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.ReactiveVisitRepository;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(ReactiveVisitResource.class)
+@ActiveProfiles({"test", "reactive"})
+class ReactiveVisitResourceTest extends VisitResourceContract {
+
+    @Autowired
+    WebTestClient client;
+
+    @MockitoBean
+    ReactiveVisitRepository visitRepository;
+
+    @Override
+    protected WebTestClient client() {
+        return client;
+    }
+
+    @Override
+    protected void givenVisitsOfPet(int petId, List<Visit> visits) {
+        given(visitRepository.findByPetIdOrderByDateDesc(petId)).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenVisitsOfPets(List<Integer> petIds, List<Visit> visits) {
+        given(visitRepository.findByPetIdInOrderByPetIdAscDateDesc(petIds)).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenVisitsOfOwner(int ownerId, List<Visit> visits) {
+        given(visitRepository.findByOwnerIdOrderByPetIdAscDateDesc(ownerId)).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenLatestVisitsOfPets(List<Integer> petIds, int latest, List<Visit> visits) {
+        given(visitRepository.findLatestByPetIdIn(petIds, latest)).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenLatestVisitsOfOwner(int ownerId, int latest, List<Visit> visits) {
+        given(visitRepository.findLatestByOwnerId(ownerId, latest)).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenVisitsOfPetsBetween(List<Integer> petIds, LocalDate from, LocalDate to, List<Visit> visits) {
+        given(visitRepository.findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(
+            petIds, java.sql.Date.valueOf(from), java.sql.Date.valueOf(to))).willReturn(Flux.fromIterable(visits));
+    }
+
+    @Override
+    protected void givenSavedVisitId(int id) {
+        given(visitRepository.save(any(Visit.class))).willAnswer(invocation -> {
+            Visit visit = invocation.getArgument(0);
+            visit.setId(id);
+            return Mono.just(visit);
+        });
+    }
+
+    @Test
+    void shouldStreamVisitsAsNdjson() {
+        givenVisitsOfPets(asList(111, 222),
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(1)
+                    .petId(111)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(2)
+                    .petId(222)
+                    .build()
+            )
+        );
+
+        List<Visit> visits = client.get().uri("/pets/visits?petId=111,222")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Visit.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(visits).extracting(Visit::getId).containsExactly(1, 2);
+    }
+}
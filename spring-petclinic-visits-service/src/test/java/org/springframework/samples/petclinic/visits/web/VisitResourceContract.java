@@ -0,0 +1,281 @@
+package org.springframework.samples.petclinic.visits.web;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.visits.model.Visit;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Tests of the visits API shared by the servlet ({@link VisitResource}) and reactive ({@link ReactiveVisitResource})
+ * stacks. Each stack stubs its own repository.
+ */
+abstract class VisitResourceContract {
+
+    protected abstract WebTestClient client();
+
+    protected abstract void givenVisitsOfPet(int petId, List<Visit> visits);
+
+    protected abstract void givenVisitsOfPets(List<Integer> petIds, List<Visit> visits);
+
+    protected abstract void givenVisitsOfOwner(int ownerId, List<Visit> visits);
+
+    protected abstract void givenLatestVisitsOfPets(List<Integer> petIds, int latest, List<Visit> visits);
+
+    protected abstract void givenLatestVisitsOfOwner(int ownerId, int latest, List<Visit> visits);
+
+    protected abstract void givenVisitsOfPetsBetween(List<Integer> petIds, LocalDate from, LocalDate to, List<Visit> visits);
+
+    /**
+     * Saving a visit assigns it the given id.
+     */
+    protected abstract void givenSavedVisitId(int id);
+
+    @Test
+    void shouldFetchVisits() {
+        givenVisitsOfPets(asList(111, 222),
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(1)
+                    .petId(111)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(2)
+                    .petId(222)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(3)
+                    .petId(222)
+                    .build()
+            )
+        );
+
+        client().get().uri("/pets/visits?petId=111,222")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items[0].id").isEqualTo(1)
+            .jsonPath("$.items[1].id").isEqualTo(2)
+            .jsonPath("$.items[2].id").isEqualTo(3)
+            .jsonPath("$.items[0].petId").isEqualTo(111)
+            .jsonPath("$.items[1].petId").isEqualTo(222)
+            .jsonPath("$.items[2].petId").isEqualTo(222);
+    }
+
+    @Test
+    void shouldFetchVisitsOfPetIdsSentInBody() {
+        givenVisitsOfPets(asList(111, 222),
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(1)
+                    .petId(111)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(2)
+                    .petId(222)
+                    .build()
+            )
+        );
+
+        client().post().uri("/pets/visits")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("[111,222]")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items[0].id").isEqualTo(1)
+            .jsonPath("$.items[1].id").isEqualTo(2)
+            .jsonPath("$.items[0].petId").isEqualTo(111)
+            .jsonPath("$.items[1].petId").isEqualTo(222);
+    }
+
+    @Test
+    void shouldFetchVisitsOfOwner() {
+        givenVisitsOfOwner(6,
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(1)
+                    .petId(7)
+                    .ownerId(6)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(2)
+                    .petId(8)
+                    .ownerId(6)
+                    .build()
+            )
+        );
+
+        client().get().uri("/owners/6/visits")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items[0].id").isEqualTo(1)
+            .jsonPath("$.items[1].id").isEqualTo(2)
+            .jsonPath("$.items[0].petId").isEqualTo(7)
+            .jsonPath("$.items[1].petId").isEqualTo(8);
+    }
+
+    @Test
+    void shouldFetchVisitsOfPet() {
+        givenVisitsOfPet(7,
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(1)
+                    .petId(7)
+                    .description("rabies shot")
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(4)
+                    .petId(7)
+                    .description("spayed")
+                    .build()
+            )
+        );
+
+        client().get().uri("/owners/6/pets/7/visits")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.length()").isEqualTo(2)
+            .jsonPath("$[0].description").isEqualTo("rabies shot")
+            .jsonPath("$[1].description").isEqualTo("spayed");
+    }
+
+    @Test
+    void shouldCreateVisit() {
+        givenSavedVisitId(5);
+
+        client().post().uri("/owners/6/pets/7/visits")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"date\":\"2024-01-10\",\"description\":\"check up\"}")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CREATED)
+            .expectBody()
+            .jsonPath("$.id").isEqualTo(5)
+            .jsonPath("$.date").isEqualTo("2024-01-10")
+            .jsonPath("$.petId").isEqualTo(7)
+            .jsonPath("$.ownerId").isEqualTo(6);
+    }
+
+    @Test
+    void shouldRejectVisitWithoutOwner() {
+        client().post().uri("/owners/0/pets/7/visits")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"date\":\"2024-01-10\",\"description\":\"check up\"}")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldFetchLatestVisitsOfEachPet() {
+        givenLatestVisitsOfPets(asList(7, 8), 1,
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(4)
+                    .petId(7)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(3)
+                    .petId(8)
+                    .build()
+            )
+        );
+
+        client().get().uri("/pets/visits?petId=7,8&latest=1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items.length()").isEqualTo(2)
+            .jsonPath("$.items[0].id").isEqualTo(4)
+            .jsonPath("$.items[1].id").isEqualTo(3);
+    }
+
+    @Test
+    void shouldFetchLatestVisitsOfPetsPosted() {
+        givenLatestVisitsOfPets(asList(7, 8), 1,
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(4)
+                    .petId(7)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(3)
+                    .petId(8)
+                    .build()
+            )
+        );
+
+        client().post().uri("/pets/visits?latest=1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("[7, 8]")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items.length()").isEqualTo(2)
+            .jsonPath("$.items[0].id").isEqualTo(4)
+            .jsonPath("$.items[1].id").isEqualTo(3);
+    }
+
+    @Test
+    void shouldFetchLatestVisitsOfOwner() {
+        givenLatestVisitsOfOwner(6, 1,
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(4)
+                    .petId(7)
+                    .ownerId(6)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(3)
+                    .petId(8)
+                    .ownerId(6)
+                    .build()
+            )
+        );
+
+        client().get().uri("/owners/6/visits?latest=1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items.length()").isEqualTo(2)
+            .jsonPath("$.items[0].id").isEqualTo(4)
+            .jsonPath("$.items[1].id").isEqualTo(3);
+    }
+
+    @Test
+    void shouldFetchVisitsBetweenDates() {
+        givenVisitsOfPetsBetween(asList(7, 8), LocalDate.of(2013, 1, 2), LocalDate.of(2013, 1, 3),
+            asList(
+                Visit.VisitBuilder.aVisit()
+                    .id(3)
+                    .petId(8)
+                    .build(),
+                Visit.VisitBuilder.aVisit()
+                    .id(2)
+                    .petId(8)
+                    .build()
+            )
+        );
+
+        client().get().uri("/pets/visits?petId=7,8&from=2013-01-02&to=2013-01-03")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items.length()").isEqualTo(2)
+            .jsonPath("$.items[0].id").isEqualTo(3)
+            .jsonPath("$.items[1].id").isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectOpenDateRange() {
+        client().get().uri("/pets/visits?petId=7&from=2013-01-02")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+}
@@ -1,27 +1,34 @@
 package org.springframework.samples.petclinic.visits.web;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.visits.model.Visit;
 import org.springframework.samples.petclinic.visits.model.VisitRepository;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
 
-
-import static java.util.Arrays.asList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(VisitResource.class)
 @ActiveProfiles("test")
-class VisitResourceTest {
+class VisitResourceTest extends VisitResourceContract {
 
     @Autowired
     MockMvc mvc;
@@ -29,33 +36,116 @@ class VisitResourceTest {
     @MockBean
     VisitRepository visitRepository;
 
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Override
+    protected WebTestClient client() {
+        return MockMvcWebTestClient.bindTo(mvc).build();
+    }
+
+    @Override
+    protected void givenVisitsOfPet(int petId, List<Visit> visits) {
+        given(visitRepository.findByPetIdOrderByDateDesc(petId)).willReturn(visits);
+    }
+
+    @Override
+    protected void givenVisitsOfPets(List<Integer> petIds, List<Visit> visits) {
+        given(visitRepository.findByPetIdInOrderByPetIdAscDateDesc(petIds)).willReturn(visits);
+    }
+
+    @Override
+    protected void givenVisitsOfOwner(int ownerId, List<Visit> visits) {
+        given(visitRepository.findByOwnerIdOrderByPetIdAscDateDesc(ownerId)).willReturn(visits);
+    }
+
+    @Override
+    protected void givenLatestVisitsOfPets(List<Integer> petIds, int latest, List<Visit> visits) {
+        given(visitRepository.findLatestByPetIdIn(petIds, latest)).willReturn(visits);
+    }
+
+    @Override
+    protected void givenLatestVisitsOfOwner(int ownerId, int latest, List<Visit> visits) {
+        given(visitRepository.findLatestByOwnerId(ownerId, latest)).willReturn(visits);
+    }
+
+    @Override
+    protected void givenVisitsOfPetsBetween(List<Integer> petIds, LocalDate from, LocalDate to, List<Visit> visits) {
+        given(visitRepository.findByPetIdInAndDateBetweenOrderByPetIdAscDateDesc(
+            petIds, java.sql.Date.valueOf(from), java.sql.Date.valueOf(to))).willReturn(visits);
+    }
+
+    @Override
+    protected void givenSavedVisitId(int id) {
+        given(visitRepository.save(any(Visit.class))).willAnswer(invocation -> {
+            Visit visit = invocation.getArgument(0);
+            visit.setId(id);
+            return visit;
+        });
+    }
+
+    @Test
+    void shouldImportVisitsAndReportFailures() throws Exception {
+        given(visitRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        String body = """
+            {"date":"2024-01-10","description":"check up","petId":7,"ownerId":6}
+            {"date":"2024-01-10","description":"no pet"}
+            {"date":"2024-01-11","description":"vaccine","petId":8,"ownerId":6}
+            {"date":"2024-01-12","description":"no owner","petId":8}
+            """;
+
+        mvc.perform(post("/visits").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.failures.length()").value(2))
+            .andExpect(jsonPath("$.failures[0].index").value(1))
+            .andExpect(jsonPath("$.failures[0].error").value("petId must be at least 1"))
+            .andExpect(jsonPath("$.failures[1].index").value(3))
+            .andExpect(jsonPath("$.failures[1].error").value("ownerId must be at least 1"));
+    }
+
+    @Test
+    void shouldImportTheVisitsFollowingAVisitOfTheWrongType() throws Exception {
+        given(visitRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        String body = """
+            {"date":"2024-01-10","description":"check up","petId":"seven","ownerId":6}
+            {"date":"2024-01-11","description":"vaccine","petId":8,"ownerId":6}
+            """;
+
+        mvc.perform(post("/visits").contentType(MediaType.APPLICATION_NDJSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.failures[0].index").value(0));
+    }
+
+    @Test
+    void shouldNotReportTheDatabaseErrorOfAFailedBatch() throws Exception {
+        given(visitRepository.saveAll(any())).willThrow(new IllegalStateException("table visits is read only"));
+
+        mvc.perform(post("/visits").contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"date\":\"2024-01-10\",\"description\":\"check up\",\"petId\":7,\"ownerId\":6}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(0))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.failures[0].error").value("Not saved: the batch of this visit could not be written"));
+    }
+
     @Test
-    void shouldFetchVisits() throws Exception {
-        given(visitRepository.findByPetIdIn(asList(111, 222)))
-            .willReturn(
-                asList(
-                    Visit.VisitBuilder.aVisit()
-                        .id(1)
-                        .petId(111)
-                        .build(),
-                    Visit.VisitBuilder.aVisit()
-                        .id(2)
-                        .petId(222)
-                        .build(),
-                    Visit.VisitBuilder.aVisit()
-                        .id(3)
-                        .petId(222)
-                        .build()
-                )
-            );
-
-        mvc.perform(get("/pets/visits?petId=111,222"))
+    void shouldImportVisitsSentAsJsonArray() throws Exception {
+        given(visitRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        mvc.perform(post("/visits").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"date\":\"2024-01-10\",\"description\":\"check up\",\"petId\":7,\"ownerId\":6}, {\"petId\":"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.items[0].id").value(1))
-            .andExpect(jsonPath("$.items[1].id").value(2))
-            .andExpect(jsonPath("$.items[2].id").value(3))
-            .andExpect(jsonPath("$.items[0].petId").value(111))
-            .andExpect(jsonPath("$.items[1].petId").value(222))
-            .andExpect(jsonPath("$.items[2].petId").value(222));
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.failures[0].index").value(1));
     }
 }